@@ -32,8 +32,12 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.zip.CRC32;
@@ -131,9 +135,16 @@ public class FileFunctions {
         if (fileSize > Integer.MAX_VALUE) {
             throw new IOException(filename + " is too long to read in as a byte-array.");
         }
-        FileInputStream fis = new FileInputStream(filename);
-        byte[] buf = readFullyIntoBuffer(fis, (int) fileSize);
-        fis.close();
+        // Read straight into the array, without a stream's intermediate buffer
+        byte[] buf = new byte[(int) fileSize];
+        ByteBuffer target = ByteBuffer.wrap(buf);
+        try (FileChannel channel = FileChannel.open(fh.toPath(), StandardOpenOption.READ)) {
+            while (target.hasRemaining()) {
+                if (channel.read(target) < 0) {
+                    throw new EOFException(filename + " ended early.");
+                }
+            }
+        }
         return buf;
     }
 
@@ -150,10 +161,31 @@ public class FileFunctions {
         }
     }
 
+    /**
+     * Maps the whole file into memory read-only, so it can be read without copying it onto the heap. The mapping
+     * stays valid after this returns.
+     */
+    public static MappedByteBuffer mapFileReadOnly(String filename) throws IOException {
+        File fh = new File(filename);
+        if (!fh.exists() || !fh.isFile() || !fh.canRead()) {
+            throw new FileNotFoundException(filename);
+        }
+        try (FileChannel channel = FileChannel.open(fh.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(filename + " is too long to map as a single buffer.");
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
     public static void writeBytesToFile(String filename, byte[] data) throws IOException {
-        FileOutputStream fos = new FileOutputStream(filename);
-        fos.write(data);
-        fos.close();
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
     }
 
     public static int getFileChecksum(String filename) {
@@ -246,21 +278,22 @@ public class FileFunctions {
      *  -
      *  xdelta3 -S -A -n -s original_us_emerald.gba newly_compiled_emerald.gba patch.xdelta
      */
-    public static byte[] applyPatch(byte[] rom, String patchName) throws IOException {
-
+    public static byte[] findPatchFile(String patchName) throws IOException {
         try {
-            byte[] patch = tryFindPatchFile(patchName);
-            VCDiffDecoder decoder = VCDiffDecoderBuilder.builder().buildSimple();
-            ByteArrayOutputStream result = new ByteArrayOutputStream();
-
-            byte[] expandedRom = new byte[32 * 1024 * 1024];
-            System.arraycopy(rom, 0, expandedRom, 0, rom.length);
-
-            decoder.decode(expandedRom, patch, result);
-            return result.toByteArray();
+            return tryFindPatchFile(patchName);
         } catch (URISyntaxException e) {
-            throw new IOException("Could not apply patch.");
+            throw new IOException("Could not find patch file.");
         }
+    }
+
+    public static byte[] applyPatch(byte[] rom, byte[] patch) throws IOException {
+        VCDiffDecoder decoder = VCDiffDecoderBuilder.builder().buildSimple();
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+
+        byte[] expandedRom = new byte[32 * 1024 * 1024];
+        System.arraycopy(rom, 0, expandedRom, 0, rom.length);
 
+        decoder.decode(expandedRom, patch, result);
+        return result.toByteArray();
     }
 }
\ No newline at end of file
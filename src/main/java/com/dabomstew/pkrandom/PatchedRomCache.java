@@ -0,0 +1,76 @@
+package com.dabomstew.pkrandom;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Keeps the result of applying a base patch on disk so later loads can map the patched rom straight in, instead of
+ * decoding the patch again. Entries are named by the MD5 of the input rom and of the patch, so a changed rom or patch
+ * never picks up a stale entry. Entries are written to a temp file and moved into place, so an entry that exists is
+ * complete.
+ */
+public class PatchedRomCache {
+
+    private static volatile File directory = new File(SysConstants.ROOT_PATH, "patch_cache");
+
+    public static File getDirectory() {
+        return directory;
+    }
+
+    public static void setDirectory(File directory) {
+        PatchedRomCache.directory = directory;
+    }
+
+    /**
+     * Returns the file holding the patched rom
+     */
+    public static File applyPatch(File rom, String patchName) throws IOException {
+        byte[] patch = FileFunctions.findPatchFile(patchName);
+        File cached = new File(directory,
+                RomIdentityCache.md5(rom) + "-" + RomIdentityCache.md5(ByteBuffer.wrap(patch)) + ".gba");
+
+        if (cached.isFile() && cached.length() > 0) {
+            return cached;
+        }
+
+        byte[] patched = FileFunctions.applyPatch(FileFunctions.readFileFullyIntoBuffer(rom.getPath()), patch);
+        return store(cached, patched);
+    }
+
+    /**
+     * Whether the file is an entry of the cache, which is never changed once it exists
+     */
+    public static boolean contains(File file) {
+        try {
+            File parent = file.getCanonicalFile().getParentFile();
+            return parent != null && parent.equals(directory.getCanonicalFile());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static File store(File cached, byte[] data) throws IOException {
+        File temp = null;
+        try {
+            Files.createDirectories(directory.toPath());
+            temp = File.createTempFile(cached.getName(), ".tmp", directory);
+            FileFunctions.writeBytesToFile(temp.getPath(), data);
+            Files.move(temp.toPath(), cached.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            return cached;
+        } catch (IOException e) {
+            // The cache only saves time, so fall back to a file that is removed on exit
+            System.out.println("Could not cache the rom in " + directory + ": " + e.getMessage());
+            if (temp != null) {
+                temp.delete();
+            }
+        }
+        temp = File.createTempFile(cached.getName(), ".tmp");
+        temp.deleteOnExit();
+        FileFunctions.writeBytesToFile(temp.getPath(), data);
+        return temp;
+    }
+}
@@ -28,63 +28,85 @@ package com.dabomstew.pkrandom;
 import java.security.SecureRandom;
 import java.util.Random;
 
-public class RandomSource {
+/**
+ * A seedable source of randomness for a single randomization run. Every rom handler gets its own instance so that
+ * several runs in the same JVM don't share (and corrupt) each other's stream.
+ */
+public class RandomSource extends Random {
 
-    private static Random source = new Random();
-    private static int calls = 0;
-    private static Random instance = new RandomSourceInstance();
+    private static final long serialVersionUID = -4876737183441746322L;
 
-    public static void reset() {
-        source = new Random();
-        calls = 0;
+    private final Random source = new Random();
+    private int calls = 0;
+
+    public RandomSource() {
     }
 
-    public static void seed(long seed) {
+    public RandomSource(long seed) {
+        seed(seed);
+    }
+
+    public synchronized void seed(long seed) {
         source.setSeed(seed);
         calls = 0;
     }
 
-    public static double random() {
-        calls++;
-        return source.nextDouble();
+    public int callsSinceSeed() {
+        return calls;
     }
 
-    public static int nextInt(int size) {
-        calls++;
-        return source.nextInt(size);
+    @Override
+    public synchronized void setSeed(long seed) {
+        // Random's constructor calls this before our own fields are set up
+        if (source != null) {
+            seed(seed);
+        }
     }
 
-    public static void nextBytes(byte[] bytes) {
+    @Override
+    public synchronized void nextBytes(byte[] bytes) {
         calls++;
         source.nextBytes(bytes);
     }
 
-    public static int nextInt() {
+    @Override
+    public synchronized int nextInt() {
         calls++;
         return source.nextInt();
     }
 
-    public static long nextLong() {
+    @Override
+    public synchronized int nextInt(int n) {
+        calls++;
+        return source.nextInt(n);
+    }
+
+    @Override
+    public synchronized long nextLong() {
         calls++;
         return source.nextLong();
     }
 
-    public static boolean nextBoolean() {
+    @Override
+    public synchronized boolean nextBoolean() {
         calls++;
         return source.nextBoolean();
     }
 
-    public static float nextFloat() {
+    @Override
+    public synchronized float nextFloat() {
         calls++;
         return source.nextFloat();
     }
 
-    public static double nextDouble() {
+    @Override
+    public synchronized double nextDouble() {
         calls++;
         return source.nextDouble();
     }
 
-    public static synchronized double nextGaussian() {
+    @Override
+    public synchronized double nextGaussian() {
         calls++;
         return source.nextGaussian();
     }
@@ -109,66 +131,4 @@ public class RandomSource {
         }
         return hash;
     }
-
-    public static Random instance() {
-        return instance;
-    }
-
-    public static int callsSinceSeed() {
-        return calls;
-    }
-
-    private static class RandomSourceInstance extends Random {
-
-        /**
-         * 
-         */
-        private static final long serialVersionUID = -4876737183441746322L;
-
-        @Override
-        public synchronized void setSeed(long seed) {
-            RandomSource.seed(seed);
-        }
-
-        @Override
-        public void nextBytes(byte[] bytes) {
-            RandomSource.nextBytes(bytes);
-        }
-
-        @Override
-        public int nextInt() {
-            return RandomSource.nextInt();
-        }
-
-        @Override
-        public int nextInt(int n) {
-            return RandomSource.nextInt(n);
-        }
-
-        @Override
-        public long nextLong() {
-            return RandomSource.nextLong();
-        }
-
-        @Override
-        public boolean nextBoolean() {
-            return RandomSource.nextBoolean();
-        }
-
-        @Override
-        public float nextFloat() {
-            return RandomSource.nextFloat();
-        }
-
-        @Override
-        public double nextDouble() {
-            return RandomSource.nextDouble();
-        }
-
-        @Override
-        public synchronized double nextGaussian() {
-            return RandomSource.nextGaussian();
-        }
-
-    }
 }
@@ -28,13 +28,17 @@ import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import com.dabomstew.pkrandom.constants.EmeraldEXConstants;
+import com.dabomstew.pkrandom.exceptions.RandomizationException;
 import com.dabomstew.pkrandom.pokemon.Encounter;
 import com.dabomstew.pkrandom.pokemon.EncounterSet;
 import com.dabomstew.pkrandom.pokemon.FieldTM;
@@ -46,6 +50,7 @@ import com.dabomstew.pkrandom.pokemon.Pokemon;
 import com.dabomstew.pkrandom.pokemon.Trainer;
 import com.dabomstew.pkrandom.pokemon.TrainerPokemon;
 import com.dabomstew.pkrandom.romhandlers.RomHandler;
+import com.dabomstew.pkrandom.romhandlers.RomSubsystem;
 
 // Can randomize a file based on settings. Output varies by seed.
 public class Randomizer {
@@ -54,15 +59,68 @@ public class Randomizer {
 
     private final Settings settings;
     private final RomHandler romHandler;
+    private boolean outputPatch;
 
     public Randomizer(Settings settings, RomHandler romHandler) {
         this.settings = settings;
         this.romHandler = romHandler;
     }
 
+    // Save a patch against the loaded rom instead of the whole randomized rom
+    public void setOutputPatch(boolean outputPatch) {
+        this.outputPatch = outputPatch;
+    }
+
+    /**
+     * The parts of the rom model that randomizing with these settings reads, including for the log. Others are only
+     * read if something turns out to need them after all.
+     */
+    public static Set<RomSubsystem> subsystemsUsedBy(Settings settings) {
+        Set<RomSubsystem> subsystems = EnumSet.noneOf(RomSubsystem.class);
+        boolean metronome = settings.getMovesetsMod() == Settings.MovesetsMod.METRONOME_ONLY;
+        boolean trainersChanged = settings.getTrainersMod() != Settings.TrainersMod.UNCHANGED
+                || settings.isRivalCarriesStarterThroughout();
+
+        // The base stats log shows abilities and held items
+        if (settings.getBaseStatisticsMod() != Settings.BaseStatisticsMod.UNCHANGED
+                || settings.getTypesMod() != Settings.TypesMod.UNCHANGED
+                || settings.getAbilitiesMod() != Settings.AbilitiesMod.UNCHANGED
+                || settings.isRandomizeWildPokemonHeldItems()) {
+            subsystems.add(RomSubsystem.ABILITIES);
+            subsystems.add(RomSubsystem.ITEMS);
+        }
+        if (settings.isChangeImpossibleEvolutions() || settings.getFieldItemsMod() != Settings.FieldItemsMod.UNCHANGED) {
+            subsystems.add(RomSubsystem.ITEMS);
+        }
+
+        // Field items, TMs and the names in the wild pokemon log all come from the maps
+        if (settings.getFieldItemsMod() != Settings.FieldItemsMod.UNCHANGED
+                || settings.getWildPokemonMod() != Settings.WildPokemonMod.UNCHANGED
+                || settings.getTmsMod() == Settings.TMsMod.RANDOM || metronome) {
+            subsystems.add(RomSubsystem.MAPS);
+        }
+
+        if (settings.getTypeChartMod() != Settings.TypeChartMod.UNCHANGED) {
+            subsystems.add(RomSubsystem.TYPE_CHART);
+        }
+
+        // Trainer pokemon that change get the moves they would know at their level
+        if (settings.getMovesetsMod() != Settings.MovesetsMod.UNCHANGED || settings.isReorderDamagingMoves()
+                || trainersChanged) {
+            subsystems.add(RomSubsystem.LEARNSETS);
+        }
+        return subsystems;
+    }
+
     public int randomize(final String filename, final PrintStream log, long seed, Consumer<String> progressCallback) {
+        if (romHandler.isLoadedRomFile(filename)) {
+            throw new RandomizationException("Can't save over the rom that was loaded: " + filename);
+        }
         final long startTime = System.currentTimeMillis();
-        RandomSource.seed(seed);
+        final RandomSource random = romHandler.getRandomSource();
+        random.seed(seed);
+        romHandler.loadSubsystems(subsystemsUsedBy(settings));
+        romHandler.setWriteStage("Pokemon & Moves");
 
         int checkValue = 0;
 
@@ -215,6 +273,7 @@ public class Randomizer {
 
         // Starter Pokemon
         // Applied after type to update the strings correctly based on new types
+        romHandler.setWriteStage("Starters");
         maybeChangeAndLogStarters(log, romHandler);
 
         // Move Data Log
@@ -222,6 +281,7 @@ public class Randomizer {
         maybeLogMoveChanges(log, romHandler);
 
         // Movesets
+        romHandler.setWriteStage("Movesets");
         boolean noBrokenMoves = settings.doBlockBrokenMoves();
         boolean forceFourLv1s = romHandler.supportsFourStartingMoves() && settings.isStartWithFourMoves();
         double msGoodDamagingProb = settings.isMovesetsForceGoodDamaging()
@@ -274,6 +334,7 @@ public class Randomizer {
         }
 
         // Trainer Pokemon
+        romHandler.setWriteStage("Trainers");
         if (settings.getTrainersMod() == Settings.TrainersMod.RANDOM) {
             romHandler.randomizeTrainerPokes(settings.isTrainersUsePokemonOfSimilarStrength(),
                     settings.isTrainersBlockLegendaries(), settings.isTrainersBlockEarlyWonderGuard(),
@@ -336,9 +397,11 @@ public class Randomizer {
         }
 
         // Static Pokemon
+        romHandler.setWriteStage("Static Pokemon");
         checkValue = maybeChangeAndLogStaticPokemon(log, romHandler, checkValue);
 
         // Wild Pokemon
+        romHandler.setWriteStage("Wild Pokemon");
         if (settings.isUseMinimumCatchRate()) {
             int normalMin, legendaryMin;
             switch (settings.getMinimumCatchRateLevel()) {
@@ -398,11 +461,13 @@ public class Randomizer {
         }
 
         // Frontier Pokemon
+        romHandler.setWriteStage("Frontier");
         if (settings.isRandomizeFrontier()) {
             romHandler.randomizeFrontier(settings.getMovesetsMod() == Settings.MovesetsMod.COMPLETELY_RANDOM);
         }
 
         // TMs
+        romHandler.setWriteStage("TMs");
         if (!(settings.getMovesetsMod() == Settings.MovesetsMod.METRONOME_ONLY)
                 && settings.getTmsMod() == Settings.TMsMod.RANDOM) {
             double goodDamagingProb = settings.isTmsForceGoodDamaging() ? settings.getTmsGoodDamagingPercent() / 100.0
@@ -425,6 +490,7 @@ public class Randomizer {
         romHandler.randomizeTMHMCompatibility(settings.getTmsHmsCompatibilityMod());
 
         // Move Tutors
+        romHandler.setWriteStage("Move Tutors");
         if (!(settings.getMovesetsMod() == Settings.MovesetsMod.METRONOME_ONLY)
                 && settings.getMoveTutorMovesMod() == Settings.MoveTutorMovesMod.RANDOM) {
             List<Integer> oldMtMoves = romHandler.getMoveTutorMoves();
@@ -450,6 +516,7 @@ public class Randomizer {
         romHandler.randomizeMoveTutorCompatibility(settings.getMoveTutorsCompatibilityMod());
 
         // In-game trades
+        romHandler.setWriteStage("In-game Trades");
         List<IngameTrade> oldTrades = romHandler.getIngameTrades();
         if (settings.getInGameTradesMod() == Settings.InGameTradesMod.RANDOMIZE_GIVEN) {
             romHandler.randomizeIngameTrades(false, settings.isRandomizeInGameTradesNicknames(),
@@ -476,8 +543,10 @@ public class Randomizer {
         }
 
         // Field Items
+        romHandler.setWriteStage("Field Items");
         maybeChangeAndLogFieldItems(log, romHandler);
 
+        romHandler.setWriteStage("Type Chart");
         if (settings.getTypeChartMod() != Settings.TypeChartMod.UNCHANGED) {
             log.println("--Type Chart--");
             romHandler.randomizeTypeCharts(settings.getTypeChartMod());
@@ -485,6 +554,7 @@ public class Randomizer {
             log.println();
         }
 
+        romHandler.setWriteStage("Warps");
         if (settings.isRandomWarps()) {
             // How much of the game to randomize (broken down by gym progression), 10 is all of it
             int warpRandoLevel = settings.getWarpRandoLevel() == 0 ? 10 : settings.getWarpRandoLevel();
@@ -497,19 +567,31 @@ public class Randomizer {
         }
 
         // Signature...
+        romHandler.setWriteStage("Signature & Check Value");
         romHandler.applySignature();
 
         // Record check value?
         romHandler.writeCheckValueToROM(checkValue);
 
         // Save
-        romHandler.saveRom(filename);
+        romHandler.setWriteStage("Save");
+        if (outputPatch) {
+            romHandler.savePatch(filename);
+        } else {
+            romHandler.saveRom(filename);
+        }
 
         // Log tail
         log.println("------------------------------------------------------------------");
         log.println("Randomization of " + romHandler.getROMName() + " completed.");
         log.println("Time elapsed: " + (System.currentTimeMillis() - startTime) + "ms");
-        log.println("RNG Calls: " + RandomSource.callsSinceSeed());
+        log.println("RNG Calls: " + random.callsSinceSeed());
+        log.println("Load timings: " + romHandler.getLoadTimings().entrySet().stream()
+                .map(e -> e.getKey() + " " + e.getValue() + "ms")
+                .collect(Collectors.joining(", ")));
+        log.println("Bytes written: " + romHandler.getBytesWrittenByStage().entrySet().stream()
+                .map(e -> e.getKey() + " " + e.getValue())
+                .collect(Collectors.joining(", ")));
         log.println("------------------------------------------------------------------");
 
         return checkValue;
@@ -517,7 +599,6 @@ public class Randomizer {
 
     private void maybeLogBaseStatAndTypeChanges(final PrintStream log, final RomHandler romHandler) {
         List<Pokemon> allPokes = romHandler.getPokemon();
-        String[] itemNames = romHandler.getItemNames();
         // Log base stats & types if changed at all
         if (settings.getBaseStatisticsMod() == Settings.BaseStatisticsMod.UNCHANGED
                 && settings.getTypesMod() == Settings.TypesMod.UNCHANGED
@@ -525,6 +606,7 @@ public class Randomizer {
                 && !settings.isRandomizeWildPokemonHeldItems()) {
             log.println("Pokemon base stats & type: unchanged" + NEWLINE);
         } else {
+            String[] itemNames = romHandler.getItemNames();
             log.println("--Pokemon Base Stats & Types--");
             log.print("NUM|NAME      |TYPE             |  HP| ATK| DEF| SPE|SATK|SDEF");
             int abils = romHandler.abilitiesPerPokemon();
@@ -0,0 +1,165 @@
+package com.dabomstew.pkrandom;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+import java.util.zip.CRC32C;
+
+/**
+ * Remembers the MD5 of rom files so that loading the same file again doesn't hash the whole rom. Entries are keyed by
+ * the canonical path and only used while the file's size and modification time are unchanged and the CRC32C of its
+ * first 64KB (which covers the header) still matches, so an edited file is always hashed again.
+ * <p>
+ * The entries are kept in the patch cache directory so they carry over between runs.
+ */
+public class RomIdentityCache {
+
+    private static final String FILE_NAME = "rom_identity.properties";
+
+    private static final int HEADER_BYTES = 0x10000;
+
+    private static final int STREAM_CHUNK_BYTES = 0x100000;
+
+    private static Properties known;
+
+    private static File knownFile;
+
+    /**
+     * Reads the file through a channel rather than mapping it, so nothing keeps the user's file open (and locked, on
+     * Windows) afterwards
+     */
+    public static String md5(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate((int) Math.min(channel.size(), HEADER_BYTES));
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Keep reading until the header is full
+            }
+            header.flip();
+            long headerCrc = headerCrc(header);
+            String cached = lookup(file, headerCrc);
+            if (cached != null) {
+                return cached;
+            }
+
+            MessageDigest md = newMd5();
+            md.update(header);
+            ByteBuffer chunk = ByteBuffer.allocate(STREAM_CHUNK_BYTES);
+            while (channel.read(chunk) >= 0) {
+                chunk.flip();
+                md.update(chunk);
+                chunk.clear();
+            }
+            return remember(file, headerCrc, Utils.toHexString(md.digest()));
+        }
+    }
+
+    /**
+     * @param contents the contents of file, which are only read past the header if the MD5 isn't already known
+     */
+    public static String md5(File file, ByteBuffer contents) {
+        long headerCrc = headerCrc(contents);
+        String cached = lookup(file, headerCrc);
+        if (cached != null) {
+            return cached;
+        }
+        return remember(file, headerCrc, md5(contents));
+    }
+
+    // The known MD5 of the file, or null if it has to be hashed
+    private static synchronized String lookup(File file, long headerCrc) {
+        String identity = identity(file, headerCrc);
+        String entry = load().getProperty(key(file));
+        if (entry != null && entry.startsWith(identity)) {
+            return entry.substring(identity.length());
+        }
+        return null;
+    }
+
+    private static synchronized String remember(File file, long headerCrc, String md5) {
+        Properties entries = load();
+        entries.setProperty(key(file), identity(file, headerCrc) + md5);
+        save(entries);
+        return md5;
+    }
+
+    private static String key(File file) {
+        try {
+            return file.getCanonicalPath();
+        } catch (IOException e) {
+            return file.getAbsolutePath();
+        }
+    }
+
+    private static String identity(File file, long headerCrc) {
+        return file.length() + ":" + file.lastModified() + ":" + Long.toHexString(headerCrc) + ":";
+    }
+
+    public static String md5(ByteBuffer data) {
+        MessageDigest md = newMd5();
+        md.update(data.duplicate());
+        return Utils.toHexString(md.digest());
+    }
+
+    private static MessageDigest newMd5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long headerCrc(ByteBuffer contents) {
+        ByteBuffer header = contents.duplicate();
+        header.position(0).limit(Math.min(header.capacity(), HEADER_BYTES));
+        CRC32C crc = new CRC32C();
+        crc.update(header);
+        return crc.getValue();
+    }
+
+    private static Properties load() {
+        File file = new File(PatchedRomCache.getDirectory(), FILE_NAME);
+        if (known != null && file.equals(knownFile)) {
+            return known;
+        }
+        known = new Properties();
+        knownFile = file;
+        if (file.isFile()) {
+            try (InputStream in = new FileInputStream(file)) {
+                known.load(in);
+            } catch (IOException e) {
+                // Start again, every rom just gets hashed once more
+                known.clear();
+            }
+        }
+        return known;
+    }
+
+    private static void save(Properties entries) {
+        File temp = null;
+        try {
+            Files.createDirectories(knownFile.getParentFile().toPath());
+            temp = File.createTempFile(FILE_NAME, ".tmp", knownFile.getParentFile());
+            try (OutputStream out = new FileOutputStream(temp)) {
+                entries.store(out, "Rom hashes by path: size:modified:header crc32c:md5");
+            }
+            Files.move(temp.toPath(), knownFile.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.out.println("Could not save the rom hashes in " + knownFile + ": " + e.getMessage());
+            if (temp != null) {
+                temp.delete();
+            }
+        }
+    }
+}
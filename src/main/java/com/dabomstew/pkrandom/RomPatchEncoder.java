@@ -0,0 +1,107 @@
+package com.dabomstew.pkrandom;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes VCDIFF (RFC 3284) patches that turn a source rom into a target rom of the same layout.
+ * <p>
+ * Randomizing only rewrites small parts of the rom, so rather than searching the source for matches this is driven
+ * by the ranges that changed: everything outside them is copied from the same offset in the source, and the changed
+ * bytes are added as they are. The result can be applied by any VCDIFF/xdelta3 decoder, including the one used by
+ * FileFunctions.applyPatch.
+ */
+public class RomPatchEncoder {
+
+    private static final byte[] HEADER = {(byte) 0xD6, (byte) 0xC3, (byte) 0xC4, 0x00, 0x00};
+
+    private static final int VCD_SOURCE = 0x01;
+
+    // Instructions from the default code table that have their size written separately
+    private static final int ADD = 1;
+    private static final int COPY_SELF = 19;
+
+    // Unchanged gaps shorter than this cost more as a copy than as part of the surrounding add
+    private static final int MIN_COPY = 4;
+
+    /**
+     * @param changedRanges sorted, non overlapping [start, end) offsets into the target, which must cover every byte
+     *                      that differs from the source. Bytes past the end of the source are always added.
+     */
+    public static byte[] encode(ByteBuffer source, byte[] target, List<int[]> changedRanges) {
+        int sourceLength = source.capacity();
+
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        ByteArrayOutputStream instructions = new ByteArrayOutputStream();
+        ByteArrayOutputStream addresses = new ByteArrayOutputStream();
+
+        List<int[]> adds = new ArrayList<>();
+        for (int[] range : changedRanges) {
+            int[] last = adds.isEmpty() ? null : adds.get(adds.size() - 1);
+            if (last != null && range[0] - last[1] < MIN_COPY) {
+                last[1] = Math.max(last[1], range[1]);
+            } else {
+                adds.add(new int[] {range[0], range[1]});
+            }
+        }
+        if (target.length > sourceLength) {
+            adds.add(new int[] {sourceLength, target.length});
+        }
+
+        int position = 0;
+        for (int[] add : adds) {
+            int start = Math.max(add[0], position);
+            int end = Math.min(add[1], target.length);
+            if (start >= end) {
+                continue;
+            }
+            if (start > position) {
+                instructions.write(COPY_SELF);
+                writeInteger(instructions, start - position);
+                writeInteger(addresses, position);
+            }
+            instructions.write(ADD);
+            writeInteger(instructions, end - start);
+            data.write(target, start, end - start);
+            position = end;
+        }
+        if (position < target.length) {
+            instructions.write(COPY_SELF);
+            writeInteger(instructions, target.length - position);
+            writeInteger(addresses, position);
+        }
+
+        ByteArrayOutputStream delta = new ByteArrayOutputStream();
+        writeInteger(delta, target.length);
+        delta.write(0); // Delta_Indicator, nothing is compressed
+        writeInteger(delta, data.size());
+        writeInteger(delta, instructions.size());
+        writeInteger(delta, addresses.size());
+        delta.writeBytes(data.toByteArray());
+        delta.writeBytes(instructions.toByteArray());
+        delta.writeBytes(addresses.toByteArray());
+
+        ByteArrayOutputStream patch = new ByteArrayOutputStream();
+        patch.writeBytes(HEADER);
+        patch.write(VCD_SOURCE);
+        writeInteger(patch, sourceLength);
+        writeInteger(patch, 0);
+        writeInteger(patch, delta.size());
+        patch.writeBytes(delta.toByteArray());
+        return patch.toByteArray();
+    }
+
+    private static void writeInteger(ByteArrayOutputStream out, long value) {
+        // Base 128, most significant group first, with the top bit set on every byte but the last
+        int groups = 1;
+        while ((value >>> (7 * groups)) != 0) {
+            groups++;
+        }
+        for (int group = groups - 1; group > 0; group--) {
+            out.write((int) ((value >>> (7 * group)) & 0x7F) | 0x80);
+        }
+        out.write((int) (value & 0x7F));
+    }
+}
@@ -0,0 +1,142 @@
+package com.dabomstew.pkrandom.cli;
+
+import com.dabomstew.pkrandom.FileFunctions;
+import com.dabomstew.pkrandom.PatchedRomCache;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Headless entry point for generating seeds in bulk without the GUI.
+ * <p>
+ * Usage: java -jar UPR-Speedchoice-cli.jar -i base.gba -s settings.rnqs -seeds 1000-1999 [-o outDir] [-t threads]
+ * [-c custom_config.json] [-l] [-p] [-cache patchCacheDir]
+ * <p>
+ * With -p each seed is written as an xdelta (vcdiff) patch instead of a full rom. The patches apply to the base rom
+ * as the randomizer loads it, i.e. after the SPDX patch for a 16MB base.
+ */
+public class RandomizerCLI {
+
+    private static final String USAGE = "Usage: -i <base rom> -s <settings file> -seeds <first>[-<last>]"
+            + " [-o <output directory>] [-t <threads>] [-c <custom config json>] [-l (write logs)]"
+            + " [-p (write patches instead of roms)] [-cache <directory for the patched base rom and rom hashes>]";
+
+    public static void main(String[] args) {
+        String romPath = null;
+        String settingsPath = null;
+        String customConfigPath = null;
+        String seedRange = null;
+        String outputPath = ".";
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean writeLogs = false;
+        boolean writePatches = false;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-i":
+                        romPath = args[++i];
+                        break;
+                    case "-s":
+                        settingsPath = args[++i];
+                        break;
+                    case "-c":
+                        customConfigPath = args[++i];
+                        break;
+                    case "-seeds":
+                        seedRange = args[++i];
+                        break;
+                    case "-o":
+                        outputPath = args[++i];
+                        break;
+                    case "-t":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "-l":
+                        writeLogs = true;
+                        break;
+                    case "-p":
+                        writePatches = true;
+                        break;
+                    case "-cache":
+                        PatchedRomCache.setDirectory(new File(args[++i]));
+                        break;
+                    default:
+                        exitWithUsage("Unknown argument " + args[i]);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            exitWithUsage("Invalid arguments");
+        }
+
+        if (romPath == null || settingsPath == null || seedRange == null) {
+            exitWithUsage("A rom, settings file and seed range are required");
+        }
+        if (threads < 1) {
+            exitWithUsage("At least one thread is required");
+        }
+
+        long firstSeed = 0;
+        long lastSeed = 0;
+        try {
+            int split = seedRange.indexOf('-', 1);
+            firstSeed = Long.parseLong(split < 0 ? seedRange : seedRange.substring(0, split));
+            lastSeed = split < 0 ? firstSeed : Long.parseLong(seedRange.substring(split + 1));
+        } catch (NumberFormatException e) {
+            exitWithUsage("Invalid seed range " + seedRange);
+        }
+        if (lastSeed < firstSeed) {
+            exitWithUsage("Invalid seed range " + seedRange);
+        }
+
+        File outputDirectory = new File(outputPath);
+        if (!outputDirectory.isDirectory() && !outputDirectory.mkdirs()) {
+            exitWithUsage("Could not create output directory " + outputPath);
+        }
+
+        try {
+            String settingsString = Files.readString(new File(settingsPath).toPath(), StandardCharsets.UTF_8);
+            String customConfigJson = readCustomConfig(customConfigPath);
+            SeedFarm farm = new SeedFarm(romPath, settingsString, customConfigJson, outputDirectory, threads,
+                    writeLogs, writePatches);
+            int failures = farm.run(firstSeed, lastSeed);
+            System.exit(failures == 0 ? 0 : 1);
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Mirrors the GUI: an explicit config wins, otherwise the first *_custom_config.json next to the jar is used.
+     * Returns null if there is no custom config to load.
+     */
+    private static String readCustomConfig(String customConfigPath) throws IOException {
+        if (customConfigPath != null) {
+            return Files.readString(new File(customConfigPath).toPath(), StandardCharsets.UTF_8);
+        }
+
+        try {
+            FileFilter configExtFilter = file -> file.getName().toLowerCase().trim().endsWith("_custom_config.json");
+            File[] jarDirectoryFiles = FileFunctions.getJarDirectory().listFiles(configExtFilter);
+            if (jarDirectoryFiles != null && jarDirectoryFiles.length > 0) {
+                System.out.println("Using custom config file " + jarDirectoryFiles[0].getName());
+                return Files.readString(jarDirectoryFiles[0].toPath(), StandardCharsets.UTF_8);
+            }
+        } catch (Exception e) {
+            /* Fall through to the default config */
+        }
+
+        System.out.println("No custom config file found, using defaults");
+        return null;
+    }
+
+    private static void exitWithUsage(String message) {
+        System.err.println(message);
+        System.err.println(USAGE);
+        System.exit(2);
+    }
+}
@@ -0,0 +1,168 @@
+package com.dabomstew.pkrandom.cli;
+
+import com.dabomstew.pkrandom.CustomConfig;
+import com.dabomstew.pkrandom.FileFunctions;
+import com.dabomstew.pkrandom.RandomSource;
+import com.dabomstew.pkrandom.Randomizer;
+import com.dabomstew.pkrandom.Settings;
+import com.dabomstew.pkrandom.romhandlers.RomHandler;
+import com.dabomstew.pkrandom.romhandlers.emeraldex.EmeraldEXRomHandler;
+import com.dabomstew.pkrandom.romhandlers.emeraldex.EmeraldExRomHandlerFactory;
+import com.google.gson.Gson;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Generates a range of seeds from a single base rom and settings string, spreading the seeds over a fixed pool of
+ * worker threads. The base rom is loaded once, then every seed gets its own rom handler copied from the pristine
+ * image so no parsed rom state is shared between threads.
+ */
+public class SeedFarm {
+
+    private final String romPath;
+    private final String settingsString;
+    private final String customConfigJson;
+    private final File outputDirectory;
+    private final int threads;
+    private final boolean writeLogs;
+    private final boolean writePatches;
+    private final EmeraldExRomHandlerFactory factory = new EmeraldExRomHandlerFactory();
+
+    private RomHandler baseHandler;
+
+    private final AtomicInteger completed = new AtomicInteger(0);
+    private final AtomicInteger failed = new AtomicInteger(0);
+
+    public SeedFarm(String romPath, String settingsString, String customConfigJson, File outputDirectory,
+                    int threads, boolean writeLogs, boolean writePatches) {
+        this.romPath = romPath;
+        this.settingsString = settingsString;
+        this.customConfigJson = customConfigJson;
+        this.outputDirectory = outputDirectory;
+        this.threads = threads;
+        this.writeLogs = writeLogs;
+        this.writePatches = writePatches;
+    }
+
+    /**
+     * Randomizes every seed from firstSeed to lastSeed (inclusive).
+     *
+     * @return the number of seeds that failed
+     */
+    public int run(long firstSeed, long lastSeed) throws IOException {
+        if (!factory.isLoadable(romPath)) {
+            throw new IOException("Unsupported rom " + romPath);
+        }
+        // Seeds already run side by side, so only use spare cores for speculative warp attempts and parsing
+        int spareCores = Runtime.getRuntime().availableProcessors() / threads;
+        baseHandler = loadRomHandler(spareCores);
+        System.out.println("Loaded " + romPath + " (" + baseHandler.getLoadTimings().entrySet().stream()
+                .map(e -> e.getKey() + " " + e.getValue() + "ms")
+                .collect(Collectors.joining(", ")) + "), " + baseHandler.getFreeSpaceByteCount()
+                + " bytes of free space");
+
+        // Seeds are handed out one at a time, so a huge range doesn't have to be held in memory
+        AtomicLong nextSeed = new AtomicLong(firstSeed);
+        long total = lastSeed - firstSeed + 1;
+
+        long startTime = System.currentTimeMillis();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(pool.submit(() -> {
+                long seed;
+                // Below firstSeed means the counter wrapped past Long.MAX_VALUE
+                while ((seed = nextSeed.getAndIncrement()) <= lastSeed && seed >= firstSeed) {
+                    randomizeSeed(seed, total);
+                }
+            }));
+        }
+        pool.shutdown();
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+
+        long elapsed = System.currentTimeMillis() - startTime;
+        System.out.printf("Finished %d seeds (%d failed) in %dms using %d threads%n", completed.get(), failed.get(),
+                elapsed, threads);
+        return failed.get();
+    }
+
+    private void randomizeSeed(long seed, long total) {
+        long startTime = System.currentTimeMillis();
+        try {
+            RomHandler romHandler = baseHandler.createFromPristine(new RandomSource());
+            Settings settings = Settings.fromString(settingsString);
+            settings.tweakForRom(romHandler);
+            settings.setCustomNames(FileFunctions.getCustomNames());
+            romHandler.setSeedUsed(seed);
+
+            String extension = writePatches ? "xdelta" : romHandler.getDefaultExtension();
+            File outputFile = new File(outputDirectory, romHandler.getROMName()
+                    .replaceAll("\\(", "")
+                    .replaceAll("\\)", "")
+                    .replaceAll(" ", "_") + "_" + seed + "." + extension);
+
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            PrintStream log = new PrintStream(writeLogs ? baos : OutputStream.nullOutputStream(), false,
+                    StandardCharsets.UTF_8);
+            romHandler.setLog(log);
+
+            Randomizer randomizer = new Randomizer(settings, romHandler);
+            randomizer.setOutputPatch(writePatches);
+            randomizer.randomize(outputFile.getAbsolutePath(), log, seed, p -> {});
+            log.close();
+
+            if (writeLogs) {
+                try (FileOutputStream fos = new FileOutputStream(outputFile.getAbsolutePath() + ".log")) {
+                    fos.write(baos.toByteArray());
+                }
+            }
+
+            System.out.printf("[%d/%d] Seed %d -> %s (%dms)%n", completed.incrementAndGet(), total, seed,
+                    outputFile.getName(), System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            System.err.println("Seed " + seed + " failed: " + e);
+        }
+    }
+
+    // Every seed's handler is copied from this one, and takes its parallelism settings with it
+    private RomHandler loadRomHandler(int spareCores) throws IOException {
+        EmeraldEXRomHandler romHandler = factory.create(new RandomSource(), null);
+        romHandler.setParallelLoading(spareCores > 1);
+        romHandler.setWarpParallelAttempts(spareCores);
+        romHandler.setCustomConfig(loadCustomConfig());
+        if (!romHandler.loadRom(romPath)) {
+            throw new IOException("Could not load rom " + romPath);
+        }
+        return romHandler;
+    }
+
+    private CustomConfig loadCustomConfig() {
+        if (customConfigJson == null) {
+            return new CustomConfig();
+        }
+        CustomConfig config = new Gson().fromJson(customConfigJson, CustomConfig.class);
+        config.init();
+        return config;
+    }
+}
@@ -48,6 +48,21 @@ public class EmeraldEXConstants {
     public static final int learnsetPtrOffset = 0x90;
     public static final int evolutionsPtrOffset = 0x9C;
 
+    public static final int trainerPartyPtrOffset = 0x04;
+    public static final int trainerClassOffset = 0x10;
+    public static final int trainerMusicAndGenderOffset = 0x11;
+    public static final int trainerNameOffset = 0x13;
+    // Only first bit is used for double battle, the other 7 are used for mugshot and starting status
+    public static final int trainerDoubleBattleOffset = 0x1E;
+    public static final int trainerPartySizeOffset = 0x20;
+
+    public static final int trainerMonSize = 0x20;
+    public static final int trainerMonIvOffset = 0x08;
+    public static final int trainerMonMove1Offset = 0x0C;
+    public static final int trainerMonSpeciesOffset = 0x14;
+    public static final int trainerMonHeldItemOffset = 0x16;
+    public static final int trainerMonLevelOffset = 0x1A;
+
     public static final int textTerminator = 0xFF;
     public static final int textVariable = 0xFD;
 
@@ -309,7 +309,7 @@ public class PresetLoadDialog extends javax.swing.JDialog {
             final File fh = romFileChooser.getSelectedFile();
             for (RomHandler.Factory rhf : parentGUI.checkHandlers) {
                 if (rhf.isLoadable(fh.getAbsolutePath())) {
-                    final RomHandler checkHandler = rhf.create(RandomSource.instance());
+                    final RomHandler checkHandler = rhf.create(new RandomSource());
                     final JDialog opDialog = new OperationDialog(bundle.getString("RandomizerGUI.loadingText"), this,
                             true);
                     Thread t = new Thread() {
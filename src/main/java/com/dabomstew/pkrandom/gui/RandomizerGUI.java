@@ -1085,7 +1085,7 @@ public class RandomizerGUI extends javax.swing.JFrame {
         for (RomHandler.Factory rhf : checkHandlers) {
             String absolutePath = fh.getAbsolutePath();
             if (rhf.isLoadable(absolutePath)) {
-                this.romHandler = rhf.create(RandomSource.instance());
+                this.romHandler = rhf.create(new RandomSource());
                 opDialog = new OperationDialog(bundle.getString("RandomizerGUI.loadingText"), this, true);
                 Thread t = new Thread(() -> {
                     boolean romLoaded = false;
@@ -1497,7 +1497,7 @@ public class RandomizerGUI extends javax.swing.JFrame {
                     return emptyIcon;
                 }
 
-                BufferedImage nImg = IconBackgroundUtils.createGradientCircle(128, 128, RandomSource.instance());
+                BufferedImage nImg = IconBackgroundUtils.createGradientCircle(128, 128, new Random());
 
                 int hW = handlerImg.getWidth();
                 int hH = handlerImg.getHeight();
@@ -1988,8 +1988,11 @@ public class RandomizerGUI extends javax.swing.JFrame {
         extensions.remove(this.romHandler.getDefaultExtension());
         fh = FileFunctions.fixFilename(fh, this.romHandler.getDefaultExtension(), extensions);
 
-        // Apply the seed
-        RandomSource.seed(romHandler.getSeedUsed());
+        if (romHandler.isLoadedRomFile(fh.getPath())) {
+            JOptionPane.showMessageDialog(this, bundle.getString("RandomizerGUI.cantOverwriteLoadedRom"));
+            return;
+        }
+
         presetMode = false;
 
         try {
@@ -2455,6 +2458,8 @@ public class RandomizerGUI extends javax.swing.JFrame {
                     attemptToLogException(ex, "RandomizerGUI.saveFailedIO", "RandomizerGUI.saveFailedIONoLog");
                     verboseLog.close();
                 }
+                // Start the next run from the originally loaded rom, rather than reading it all in again
+                final RomHandler pristineHandler = createPristineHandler();
                 if (succeededSave) {
                     SwingUtilities.invokeLater(() -> {
                         RandomizerGUI.this.opDialog.setVisible(false);
@@ -2508,26 +2513,12 @@ public class RandomizerGUI extends javax.swing.JFrame {
                             }
                         }
 
-                        String fileName = romHandler.loadedFilename();
-                        RandomizerGUI.this.romHandler = null;
-                        initialFormState();
-                        try {
-                            loadRomFile(new File(fileName));
-                        } catch (Exception e) {
-                            /* Stuff may have changed since the rom was loaded, if so just ignore it*/
-                        }
+                        reloadRom(pristineHandler);
                     });
                 } else {
                     SwingUtilities.invokeLater(() -> {
                         RandomizerGUI.this.opDialog.setVisible(false);
-                        String fileName = romHandler.loadedFilename();
-                        RandomizerGUI.this.romHandler = null;
-                        initialFormState();
-                        try {
-                            loadRomFile(new File(fileName));
-                        } catch (Exception e) {
-                            /* Stuff may have changed since the rom was loaded, if so just ignore it*/
-                        }
+                        reloadRom(pristineHandler);
                     });
                 }
             });
@@ -2538,6 +2529,31 @@ public class RandomizerGUI extends javax.swing.JFrame {
         }
     }
 
+    private RomHandler createPristineHandler() {
+        try {
+            return this.romHandler.createFromPristine(new RandomSource());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private void reloadRom(RomHandler pristineHandler) {
+        String fileName = romHandler.loadedFilename();
+        RandomizerGUI.this.romHandler = null;
+        initialFormState();
+        if (pristineHandler != null) {
+            this.romHandler = pristineHandler;
+            romLoaded();
+            tryLoadConfig();
+            return;
+        }
+        try {
+            loadRomFile(new File(fileName));
+        } catch (Exception e) {
+            /* Stuff may have changed since the rom was loaded, if so just ignore it*/
+        }
+    }
+
     private void presetLoader() {
         PresetLoadDialog pld = new PresetLoadDialog(this);
         if (pld.isCompleted()) {
@@ -2565,8 +2581,6 @@ public class RandomizerGUI extends javax.swing.JFrame {
                 extensions.remove(this.romHandler.getDefaultExtension());
                 fh = FileFunctions.fixFilename(fh, this.romHandler.getDefaultExtension(), extensions);
 
-                // Apply the seed we were given
-                RandomSource.seed(seed);
                 presetMode = true;
                 performRandomization(fh.getAbsolutePath(), seed, pld.getCustomNames());
 
@@ -2606,6 +2620,7 @@ public class RandomizerGUI extends javax.swing.JFrame {
                     ps.println("ROM: " + romHandler.getROMName());
                     ps.println("Code: " + romHandler.getROMCode());
                     ps.println("Reported Support Level: " + romHandler.getSupportLevel());
+                    ps.println("Free Space: " + romHandler.getFreeSpaceByteCount() + " bytes");
                     ps.println();
                 } catch (Exception ex2) {
                     // Do nothing, just don't fail
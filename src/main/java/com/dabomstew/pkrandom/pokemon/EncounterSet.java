@@ -27,6 +27,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 
 public class EncounterSet {
 
@@ -34,6 +35,7 @@ public class EncounterSet {
     private List<Encounter> encounters = new ArrayList<>();
     private Set<Pokemon> bannedPokemon = new HashSet<>();
     private String displayName;
+    private Supplier<String> displayNameSource;
     private int offset;
     private boolean reasonable = true;
 
@@ -62,6 +64,9 @@ public class EncounterSet {
     }
 
     public String getDisplayName() {
+        if (displayName == null && displayNameSource != null) {
+            displayName = displayNameSource.get();
+        }
         return displayName;
     }
 
@@ -69,6 +74,12 @@ public class EncounterSet {
         this.displayName = displayName;
     }
 
+    // The name is only built if something asks for it
+    public void setDisplayName(Supplier<String> displayNameSource) {
+        this.displayName = null;
+        this.displayNameSource = displayNameSource;
+    }
+
     public int getOffset() {
         return offset;
     }
@@ -0,0 +1,156 @@
+package com.dabomstew.pkrandom.pokemon;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * The evolutions added so far while building new evolution lines, with each pokemon's depth (the longest chain of
+ * pre-evolutions above it), height (the longest chain of evolutions below it) and family kept up to date as they are
+ * added. A pokemon can end up with more than one pre-evolution, so the "trees" can share branches, but there are never
+ * cycles.
+ * <p>
+ * Checking a candidate evolution only has to look below it, instead of searching the whole family.
+ */
+public class EvolutionForest {
+
+    private final Map<Pokemon, Node> nodes = new HashMap<>();
+
+    public EvolutionForest(List<Pokemon> pool) {
+        for (Pokemon pk : pool) {
+            nodes.put(pk, new Node());
+        }
+    }
+
+    public int getDepth(Pokemon pk) {
+        return nodes.get(pk).depth;
+    }
+
+    public int getHeight(Pokemon pk) {
+        return nodes.get(pk).height;
+    }
+
+    public boolean sameFamily(Pokemon a, Pokemon b) {
+        return nodes.get(a).family() == nodes.get(b).family();
+    }
+
+    /**
+     * Whether from evolving into to would make an evolution cycle, which is when from is already below to
+     */
+    public boolean wouldCycle(Pokemon from, Pokemon to) {
+        if (from == to) {
+            return true;
+        }
+        Node fromNode = nodes.get(from);
+        Node toNode = nodes.get(to);
+        if (fromNode.family() != toNode.family() || toNode.depth >= fromNode.depth) {
+            return false;
+        }
+        return reaches(toNode, fromNode);
+    }
+
+    private static boolean reaches(Node node, Node target) {
+        for (Node child : node.children) {
+            // Everything on the way down to the target is above it
+            if (child == target || (child.depth < target.depth && reaches(child, target))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether from evolving into to would give something in the family stageLimit or more stages, or leave something
+     * on the last stage that is still going to be given an evolution. Only the family below to can change, the rest
+     * was checked when it was added.
+     *
+     * @param evolvesLater whether a pokemon that doesn't evolve yet is going to be given an evolution
+     */
+    public boolean exceedsStageLimit(Pokemon from, Pokemon to, int stageLimit, Predicate<Pokemon> evolvesLater) {
+        int newDepth = nodes.get(from).depth + 1;
+        Node toNode = nodes.get(to);
+        if (newDepth + toNode.height >= stageLimit) {
+            return true;
+        }
+        return endsOnLastStage(to, toNode, newDepth, stageLimit, evolvesLater);
+    }
+
+    private boolean endsOnLastStage(Pokemon pk, Node node, int depth, int stageLimit,
+                                    Predicate<Pokemon> evolvesLater) {
+        if (depth <= node.depth) {
+            // Nothing from here down moves
+            return false;
+        }
+        if (node.children.isEmpty()) {
+            return depth == stageLimit - 1 && evolvesLater.test(pk);
+        }
+        for (int i = 0; i < node.children.size(); i++) {
+            if (endsOnLastStage(node.childPokemon.get(i), node.children.get(i), depth + 1, stageLimit, evolvesLater)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void add(Pokemon from, Pokemon to) {
+        Node fromNode = nodes.get(from);
+        Node toNode = nodes.get(to);
+        fromNode.children.add(toNode);
+        fromNode.childPokemon.add(to);
+        toNode.parents.add(fromNode);
+
+        Node fromFamily = fromNode.family();
+        Node toFamily = toNode.family();
+        if (fromFamily != toFamily) {
+            toFamily.familyParent = fromFamily;
+        }
+
+        raiseDepth(toNode, fromNode.depth + 1);
+        raiseHeight(fromNode, toNode.height + 1);
+    }
+
+    private static void raiseDepth(Node node, int depth) {
+        if (depth > node.depth) {
+            node.depth = depth;
+            for (Node child : node.children) {
+                raiseDepth(child, depth + 1);
+            }
+        }
+    }
+
+    private static void raiseHeight(Node node, int height) {
+        if (height > node.height) {
+            node.height = height;
+            for (Node parent : node.parents) {
+                raiseHeight(parent, height + 1);
+            }
+        }
+    }
+
+    private static class Node {
+        private final List<Node> children = new ArrayList<>();
+        private final List<Pokemon> childPokemon = new ArrayList<>();
+        private final List<Node> parents = new ArrayList<>();
+        private int depth;
+        private int height;
+        // Union-find link towards the node that stands for the family, null on that node
+        private Node familyParent;
+
+        private Node family() {
+            Node root = this;
+            while (root.familyParent != null) {
+                root = root.familyParent;
+            }
+            // Point everything on the way straight at the root, so later lookups are short
+            Node node = this;
+            while (node != root) {
+                Node next = node.familyParent;
+                node.familyParent = root;
+                node = next;
+            }
+            return root;
+        }
+    }
+}
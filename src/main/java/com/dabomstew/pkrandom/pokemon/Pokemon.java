@@ -72,16 +72,18 @@ public class Pokemon implements Comparable<Pokemon> {
     private List<Integer> shuffledStatsOrder;
 
     private List<MoveLearnt> learnset = new ArrayList<>();
+    // Set when the learnset hasn't been read from the rom yet, and reads it (and usually every other learnset)
+    private Runnable learnsetLoader;
 
-    private List<Integer> customLegendaryList;
+    private SpeciesFlags speciesFlags;
 
     // A flag to use for things like recursive stats copying.
     // Must not rely on the state of this flag being preserved between calls.
     private boolean temporaryFlag;
 
-    public Pokemon(List<Integer> customLegendaryList) {
+    public Pokemon(SpeciesFlags speciesFlags) {
         shuffledStatsOrder = Arrays.asList(0, 1, 2, 3, 4, 5);
-        this.customLegendaryList = customLegendaryList;
+        this.speciesFlags = speciesFlags;
     }
 
     public void shuffleStats(Random random) {
@@ -376,13 +378,23 @@ public class Pokemon implements Comparable<Pokemon> {
     }
 
     public List<MoveLearnt> getLearnset() {
+        if (learnsetLoader != null) {
+            Runnable loader = learnsetLoader;
+            learnsetLoader = null;
+            loader.run();
+        }
         return learnset;
     }
 
     public void setLearnset(List<MoveLearnt> learnset) {
+        this.learnsetLoader = null;
         this.learnset = learnset;
     }
 
+    public void setLearnsetLoader(Runnable learnsetLoader) {
+        this.learnsetLoader = learnsetLoader;
+    }
+
     private int pickNewBST(Random random) {
         int minBST, maxBST;
         int fromDepth = this.evosFromDepth();
@@ -625,28 +637,23 @@ public class Pokemon implements Comparable<Pokemon> {
     }
 
     public boolean isUnevolvedLegendary() {
-        return Legendaries.unevolvedLegendaries().contains(this.speciesNumber);
+        return speciesFlags.has(this.speciesNumber, SpeciesFlags.UNEVOLVED_LEGENDARY);
     }
 
     public boolean isLegendary() {
-
-        if (customLegendaryList != null) {
-            return customLegendaryList.contains(this.speciesNumber);
-        }
-
-        return Legendaries.getLegendarySpecies().contains(this.speciesNumber);
+        return speciesFlags.has(this.speciesNumber, SpeciesFlags.LEGENDARY);
     }
 
     public boolean isMegaLegendary() {
-        return EmeraldEXConstants.isMegaLegendary(this.speciesNumber);
+        return speciesFlags.has(this.speciesNumber, SpeciesFlags.MEGA_LEGENDARY);
     }
 
     public boolean isGigantamax() {
-        return EmeraldEXConstants.isGigantamax(this.speciesNumber);
+        return speciesFlags.has(this.speciesNumber, SpeciesFlags.GIGANTAMAX);
     }
 
     public boolean isMega() {
-        return EmeraldEXConstants.isMega(this.speciesNumber);
+        return speciesFlags.has(this.speciesNumber, SpeciesFlags.MEGA);
     }
 
     public int evosFromDepth() {
@@ -0,0 +1,114 @@
+package com.dabomstew.pkrandom.pokemon;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Draws pokemon from a pool without repeats: every pokemon is drawn once before any of them comes up again. When the
+ * deck runs out it is filled back up with the whole pool the next time something is drawn.
+ * <p>
+ * Some pokemon can be excluded for a while (e.g. the ones banned from one area). They stay in the deck but are kept
+ * behind the drawable cards, so a draw is still one random number and a swap.
+ */
+public class PokemonDeck {
+
+    private final Pokemon[] pool;
+
+    private final Map<Pokemon, Integer> ids = new HashMap<>();
+
+    // The cards left, by pool index. [0, drawable) can be drawn, [drawable, size) are excluded for now
+    private final int[] cards;
+
+    // Where each pool index is in cards, only meaningful while it's in [0, size)
+    private final int[] positions;
+
+    private int size;
+
+    private int drawable;
+
+    private final BitSet excluded = new BitSet();
+
+    public PokemonDeck(List<Pokemon> pool) {
+        this.pool = pool.stream().filter(Objects::nonNull).distinct().toArray(Pokemon[]::new);
+        for (int i = 0; i < this.pool.length; i++) {
+            ids.put(this.pool[i], i);
+        }
+        cards = new int[this.pool.length];
+        positions = new int[this.pool.length];
+        refill();
+    }
+
+    /**
+     * Stops these pokemon from being drawn until the exclusions are changed again. They aren't used up.
+     */
+    public void setExcluded(Collection<Pokemon> pokemon) {
+        excluded.clear();
+        for (Pokemon pk : pokemon) {
+            Integer id = ids.get(pk);
+            if (id != null) {
+                excluded.set(id);
+            }
+        }
+        partition();
+    }
+
+    /**
+     * Removes and returns a random pokemon that isn't excluded, or null if only excluded pokemon are left this time
+     * round
+     */
+    public Pokemon draw(Random random) {
+        if (size == 0) {
+            refill();
+        }
+        if (drawable == 0) {
+            return null;
+        }
+        int picked = cards[random.nextInt(drawable)];
+        remove(picked);
+        return pool[picked];
+    }
+
+    private void refill() {
+        for (int i = 0; i < pool.length; i++) {
+            cards[i] = i;
+            positions[i] = i;
+        }
+        size = pool.length;
+        partition();
+    }
+
+    // Moves the excluded cards still in the deck behind the drawable ones. Cards excluded before but not now are
+    // simply left where they are, in front of the boundary
+    private void partition() {
+        drawable = size;
+        for (int id = excluded.nextSetBit(0); id >= 0; id = excluded.nextSetBit(id + 1)) {
+            int position = positions[id];
+            if (position < drawable) {
+                drawable--;
+                swap(position, drawable);
+            }
+        }
+    }
+
+    private void remove(int id) {
+        // Fill the gap from the end of the drawable cards, and that gap from the end of the deck
+        drawable--;
+        swap(positions[id], drawable);
+        size--;
+        swap(drawable, size);
+    }
+
+    private void swap(int a, int b) {
+        int cardA = cards[a];
+        int cardB = cards[b];
+        cards[a] = cardB;
+        cards[b] = cardA;
+        positions[cardB] = a;
+        positions[cardA] = b;
+    }
+}
@@ -0,0 +1,196 @@
+package com.dabomstew.pkrandom.pokemon;
+
+import com.dabomstew.pkrandom.constants.GlobalConstants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * A pool of pokemon sorted by bstForPowerLevels(), so finding everything within a bst window is two binary searches.
+ * Positions refer to the sorted order: [from(minBst), to(maxBst)) is every pokemon in the window.
+ * <p>
+ * Removed pokemon keep their positions, they're just skipped: count and nth only see the ones that are left, through
+ * a Fenwick tree over the positions, so a removal doesn't have to shift the arrays.
+ * <p>
+ * The bsts are read when the index is built, so it must be rebuilt if stats change.
+ */
+public class PowerLevelIndex {
+
+    // The pool in its original order, without nulls
+    private final List<Pokemon> pokemon;
+
+    private final Pokemon[] sorted;
+
+    private final int[] bsts;
+
+    private final BitSet removed = new BitSet();
+
+    // Fenwick tree of how many pokemon are left, by position (1 based)
+    private final int[] remaining;
+
+    private PowerLevelIndex withoutWonderGuard;
+
+    public PowerLevelIndex(List<Pokemon> pool) {
+        pokemon = pool.stream().filter(Objects::nonNull).collect(Collectors.toList());
+        // Stable, so pokemon with the same bst stay in pool order
+        sorted = pokemon.stream().sorted(Comparator.comparingInt(Pokemon::bstForPowerLevels)).toArray(Pokemon[]::new);
+        bsts = Arrays.stream(sorted).mapToInt(Pokemon::bstForPowerLevels).toArray();
+        remaining = new int[sorted.length + 1];
+        for (int i = 1; i <= sorted.length; i++) {
+            remaining[i]++;
+            int parent = i + (i & -i);
+            if (parent <= sorted.length) {
+                remaining[parent] += remaining[i];
+            }
+        }
+    }
+
+    /**
+     * The pokemon left, in their original order
+     */
+    public List<Pokemon> getPokemon() {
+        if (removed.isEmpty()) {
+            return Collections.unmodifiableList(pokemon);
+        }
+        Set<Pokemon> removedPokemon = removed.stream().mapToObj(i -> sorted[i]).collect(Collectors.toSet());
+        return pokemon.stream().filter(pk -> !removedPokemon.contains(pk)).collect(Collectors.toList());
+    }
+
+    /**
+     * How many pokemon are left
+     */
+    public int size() {
+        return sorted.length - removed.cardinality();
+    }
+
+    public Pokemon get(int position) {
+        return sorted[position];
+    }
+
+    /**
+     * The first position with a bst of at least minBst
+     */
+    public int from(int minBst) {
+        int low = 0;
+        int high = bsts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (bsts[mid] < minBst) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * One past the last position with a bst of at most maxBst
+     */
+    public int to(int maxBst) {
+        return from(maxBst + 1);
+    }
+
+    /**
+     * Returns the sorted position of this pokemon, or -1 if it isn't in the pool
+     */
+    public int positionOf(Pokemon pk) {
+        int bst = pk.bstForPowerLevels();
+        for (int i = from(bst); i < bsts.length && bsts[i] == bst; i++) {
+            if (sorted[i].equals(pk)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public void remove(Pokemon pk) {
+        int bst = pk.bstForPowerLevels();
+        int position = from(bst);
+        while (position < bsts.length && bsts[position] == bst && (removed.get(position) || !sorted[position].equals(pk))) {
+            position++;
+        }
+        if (position == bsts.length || bsts[position] != bst) {
+            return;
+        }
+        removed.set(position);
+        for (int i = position + 1; i < remaining.length; i += i & -i) {
+            remaining[i]--;
+        }
+        if (withoutWonderGuard != null) {
+            withoutWonderGuard.remove(pk);
+        }
+    }
+
+    /**
+     * How many pokemon are left in [from, to)
+     */
+    public int count(int from, int to) {
+        return countBefore(to) - countBefore(from);
+    }
+
+    private int countBefore(int position) {
+        int count = 0;
+        for (int i = position; i > 0; i -= i & -i) {
+            count += remaining[i];
+        }
+        return count;
+    }
+
+    /**
+     * The position of the nth (from 0) pokemon left at or after from
+     */
+    public int nth(int from, int n) {
+        // Walk down the tree for the last position with fewer than target pokemon before it
+        int target = countBefore(from) + n + 1;
+        int position = 0;
+        for (int step = Integer.highestOneBit(sorted.length); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next < remaining.length && remaining[next] < target) {
+                position = next;
+                target -= remaining[next];
+            }
+        }
+        return position;
+    }
+
+    /**
+     * The pokemon left in this pool that can't have wonder guard. Later removals from this pool are removed from it too
+     */
+    public PowerLevelIndex withoutWonderGuard() {
+        if (withoutWonderGuard == null) {
+            withoutWonderGuard = new PowerLevelIndex(getPokemon().stream()
+                    .filter(pk -> !hasWonderGuard(pk))
+                    .collect(Collectors.toList()));
+        }
+        return withoutWonderGuard;
+    }
+
+    public static boolean hasWonderGuard(Pokemon pk) {
+        return pk.getAbility1() == GlobalConstants.WONDER_GUARD_INDEX
+                || pk.getAbility2() == GlobalConstants.WONDER_GUARD_INDEX
+                || pk.getAbility3() == GlobalConstants.WONDER_GUARD_INDEX;
+    }
+
+    /**
+     * The sorted positions of the given pokemon that are left and fall in [from, to), in ascending order
+     */
+    public List<Integer> positionsIn(int from, int to, Iterable<Pokemon> excluded) {
+        List<Integer> positions = new ArrayList<>();
+        for (Pokemon pk : excluded) {
+            int position = positionOf(pk);
+            if (position >= from && position < to && !removed.get(position) && !positions.contains(position)) {
+                positions.add(position);
+            }
+        }
+        Collections.sort(positions);
+        return positions;
+    }
+}
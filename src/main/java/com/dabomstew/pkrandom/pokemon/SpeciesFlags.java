@@ -0,0 +1,58 @@
+package com.dabomstew.pkrandom.pokemon;
+
+import com.dabomstew.pkrandom.constants.EmeraldEXConstants;
+
+import java.util.List;
+
+/**
+ * Legendary/mega/gigantamax classification for every species, worked out once when the rom is loaded so that
+ * checking a pokemon is just an array lookup.
+ */
+public class SpeciesFlags {
+
+    public static final int LEGENDARY = 1;
+    public static final int UNEVOLVED_LEGENDARY = 1 << 1;
+    public static final int MEGA = 1 << 2;
+    public static final int MEGA_LEGENDARY = 1 << 3;
+    public static final int GIGANTAMAX = 1 << 4;
+
+    private final byte[] flags;
+
+    /**
+     * @param customLegendaries if not null, replaces the built in list of legendaries
+     */
+    public SpeciesFlags(int speciesCount, List<Integer> customLegendaries) {
+        flags = new byte[speciesCount + 1];
+
+        List<Integer> legendaries = customLegendaries != null ? customLegendaries : Legendaries.getLegendarySpecies();
+        for (Integer species : legendaries) {
+            set(species, LEGENDARY);
+        }
+        for (Integer species : Legendaries.unevolvedLegendaries()) {
+            set(species, UNEVOLVED_LEGENDARY);
+        }
+
+        for (int species = 0; species <= speciesCount; species++) {
+            if (EmeraldEXConstants.isMega(species)) {
+                set(species, MEGA);
+            }
+            if (EmeraldEXConstants.isMegaLegendary(species)) {
+                set(species, MEGA_LEGENDARY);
+            }
+            if (EmeraldEXConstants.isGigantamax(species)) {
+                set(species, GIGANTAMAX);
+            }
+        }
+    }
+
+    public boolean has(int species, int flag) {
+        return species >= 0 && species < flags.length && (flags[species] & flag) != 0;
+    }
+
+    private void set(Integer species, int flag) {
+        // Unknown names in the custom config come through as null
+        if (species != null && species >= 0 && species < flags.length) {
+            flags[species] |= flag;
+        }
+    }
+}
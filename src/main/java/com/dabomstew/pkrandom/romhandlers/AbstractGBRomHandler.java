@@ -25,61 +25,202 @@ package com.dabomstew.pkrandom.romhandlers;
 /*----------------------------------------------------------------------------*/
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
-import java.util.Random;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import com.dabomstew.pkrandom.FileFunctions;
-import com.dabomstew.pkrandom.exceptions.RandomizerIOException;
+import com.dabomstew.pkrandom.PatchedRomCache;
+import com.dabomstew.pkrandom.RandomSource;
+import com.dabomstew.pkrandom.RomIdentityCache;
+import com.dabomstew.pkrandom.RomPatchEncoder;
 
 public abstract class AbstractGBRomHandler extends AbstractRomHandler {
 
+    // Writes should go through writeByte/writeBytes/writeWord so that they are tracked
     protected byte[] rom;
+    private RomWriteTracker romWrites = new RomWriteTracker();
+    // The rom as it was after loading and patching, shared read-only between handlers created from it. Patched roms
+    // map their patch cache entry, which is never written to; anything else is a heap copy of the file as it was read
+    private ByteBuffer pristineRom;
+    // The patch cache entry that is mapped, if any
+    private File pristineFile;
     private String loadedFN;
+    private Map<String, Long> loadTimings = new LinkedHashMap<>();
+    private Set<RomSubsystem> loadedSubsystems = EnumSet.noneOf(RomSubsystem.class);
     private long seedUsed;
 
-    public AbstractGBRomHandler(Random random, PrintStream logStream) {
+    public AbstractGBRomHandler(RandomSource random, PrintStream logStream) {
         super(random, logStream);
     }
 
     @Override
     public boolean loadRom(String filename) {
-        byte[] loaded = loadFile(filename);
+        Map<String, Long> timings = new LinkedHashMap<>();
+        long start = System.nanoTime();
 
+        File romFile;
         try {
-            loaded = patchRomIfNeeded(loaded);
+            romFile = patchRomIfNeeded(new File(filename));
         } catch (IOException e) {
             return false;
         }
+        start = lap(timings, "Patch", start);
 
-        if (!detectRom(loaded)) {
+        // Only cache entries are mapped: the user's own file could be written over while it's mapped, so it is read
+        // onto the heap and that copy is kept as the pristine rom instead
+        boolean cached = PatchedRomCache.contains(romFile);
+        ByteBuffer contents;
+        byte[] loaded;
+        try {
+            if (cached) {
+                contents = FileFunctions.mapFileReadOnly(romFile.getPath());
+                loaded = toArray(contents);
+            } else {
+                byte[] read = FileFunctions.readFileFullyIntoBuffer(romFile.getPath());
+                contents = ByteBuffer.wrap(read).asReadOnlyBuffer();
+                loaded = read.clone();
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        start = lap(timings, "Read", start);
+
+        if (!detectRom(loaded, () -> RomIdentityCache.md5(romFile, contents))) {
             return false;
         }
+        start = lap(timings, "Hash", start);
+
+        this.pristineRom = contents;
+        this.pristineFile = cached ? romFile : null;
         this.rom = loaded;
+        romWrites = new RomWriteTracker();
         loadedFN = filename;
+        loadTimings = timings;
+        loadedSubsystems = EnumSet.noneOf(RomSubsystem.class);
         loadedRom();
+        lap(timings, "Parse", start);
         return true;
     }
 
+    @Override
+    public RomHandler createFromPristine(RandomSource random) {
+        if (pristineRom == null) {
+            throw new IllegalStateException("No rom has been loaded");
+        }
+        Map<String, Long> timings = new LinkedHashMap<>();
+        long start = System.nanoTime();
+
+        AbstractGBRomHandler copy = newHandler(random);
+        copy.setCustomConfig(customConfig);
+        copy.pristineRom = pristineRom;
+        copy.pristineFile = pristineFile;
+        copy.rom = toArray(pristineRom);
+        copy.loadedFN = loadedFN;
+        start = lap(timings, "Copy", start);
+        copy.loadTimings = timings;
+        copy.loadedRom();
+        lap(timings, "Parse", start);
+        return copy;
+    }
+
+    @Override
+    public void loadSubsystems(Set<RomSubsystem> subsystems) {
+        for (RomSubsystem subsystem : subsystems) {
+            requireSubsystem(subsystem);
+        }
+    }
+
+    /**
+     * Reads this part of the rom model if it hasn't been read since the rom was loaded. The time taken is added to the
+     * load timings.
+     */
+    protected void requireSubsystem(RomSubsystem subsystem) {
+        if (!loadedSubsystems.contains(subsystem)) {
+            long start = System.nanoTime();
+            loadSubsystem(subsystem);
+            loadedSubsystems.add(subsystem);
+            lap(loadTimings, subsystem.toString(), start);
+        }
+    }
+
+    @Override
+    public Map<String, Long> getLoadTimings() {
+        return Collections.unmodifiableMap(loadTimings);
+    }
+
+    // Records the milliseconds since start under this phase and returns the time now
+    private static long lap(Map<String, Long> timings, String phase, long start) {
+        long now = System.nanoTime();
+        timings.put(phase, (now - start) / 1_000_000);
+        return now;
+    }
+
     @Override
     public String loadedFilename() {
         return loadedFN;
     }
 
+    @Override
+    public boolean isLoadedRomFile(String filename) {
+        return sameFile(filename, loadedFN) || (pristineFile != null && sameFile(filename, pristineFile.getPath()));
+    }
+
+    private static boolean sameFile(String a, String b) {
+        if (a == null || b == null) {
+            return false;
+        }
+        try {
+            return new File(a).getCanonicalFile().equals(new File(b).getCanonicalFile());
+        } catch (IOException e) {
+            return new File(a).getAbsoluteFile().equals(new File(b).getAbsoluteFile());
+        }
+    }
+
     @Override
     public boolean saveRom(String filename) {
+        if (isLoadedRomFile(filename)) {
+            return false;
+        }
+        savingRom();
+        try {
+            FileFunctions.writeBytesToFile(filename, rom);
+            return true;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean savePatch(String filename) {
+        if (isLoadedRomFile(filename)) {
+            return false;
+        }
         savingRom();
         try {
-            FileOutputStream fos = new FileOutputStream(filename);
-            fos.write(rom);
-            fos.close();
+            FileFunctions.writeBytesToFile(filename, RomPatchEncoder.encode(pristineRom, rom, romWrites.getRanges()));
             return true;
         } catch (IOException ex) {
             return false;
         }
     }
 
+    @Override
+    public void setWriteStage(String stage) {
+        romWrites.setStage(stage);
+    }
+
+    @Override
+    public Map<String, Long> getBytesWrittenByStage() {
+        return romWrites.getBytesWrittenByStage();
+    }
+
     @Override
     public boolean canChangeStaticPokemon() {
         return true;
@@ -96,12 +237,20 @@ public abstract class AbstractGBRomHandler extends AbstractRomHandler {
         return false;
     }
 
-    public abstract byte[] patchRomIfNeeded(byte[] rom) throws IOException;
+    // Returns the file to load, which is the rom itself if it doesn't need patching
+    public abstract File patchRomIfNeeded(File rom) throws IOException;
+
+    // An empty handler of the same type, used to build copies over the pristine rom
+    protected abstract AbstractGBRomHandler newHandler(RandomSource random);
 
-    public abstract boolean detectRom(byte[] rom);
+    // md5 hashes the whole rom, so only call it if the cheaper checks pass
+    public abstract boolean detectRom(byte[] rom, Supplier<String> md5);
 
     public abstract void loadedRom();
 
+    // Called at most once per subsystem after loadedRom, before anything of that subsystem is used
+    protected abstract void loadSubsystem(RomSubsystem subsystem);
+
     public abstract void savingRom();
 
     public Long getSeedUsed() {
@@ -112,12 +261,11 @@ public abstract class AbstractGBRomHandler extends AbstractRomHandler {
         this.seedUsed = seedUsed;
     }
 
-    protected static byte[] loadFile(String filename) {
-        try {
-            return FileFunctions.readFileFullyIntoBuffer(filename);
-        } catch (IOException ex) {
-            throw new RandomizerIOException(ex);
-        }
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] data = new byte[buffer.capacity()];
+        // Read through a duplicate so the shared buffer's position is never touched
+        buffer.duplicate().get(data);
+        return data;
     }
 
     protected void readByteIntoFlags(boolean[] flags, int offsetIntoFlags, int offsetIntoROM) {
@@ -151,5 +299,18 @@ public abstract class AbstractGBRomHandler extends AbstractRomHandler {
 
         data[offset] = (byte) (value % 0x100);
         data[offset + 1] = (byte) ((value / 0x100) % 0x100);
+        if (data == rom) {
+            romWrites.written(offset, 2);
+        }
+    }
+
+    protected void writeByte(int offset, int value) {
+        rom[offset] = (byte) value;
+        romWrites.written(offset, 1);
+    }
+
+    protected void writeBytes(int offset, byte[] data, int dataOffset, int length) {
+        System.arraycopy(data, dataOffset, rom, offset, length);
+        romWrites.written(offset, length);
     }
 }
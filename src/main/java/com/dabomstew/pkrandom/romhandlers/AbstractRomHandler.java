@@ -34,6 +34,7 @@ import com.dabomstew.pkrandom.pokemon.*;
 
 import java.io.PrintStream;
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public abstract class AbstractRomHandler implements RomHandler {
@@ -43,13 +44,13 @@ public abstract class AbstractRomHandler implements RomHandler {
     protected List<Pokemon> noLegendaryList;
     protected List<Pokemon> onlyLegendaryList;
     protected List<Pokemon> bannedForPlayer;
-    protected final Random random;
+    protected final RandomSource random;
     protected PrintStream logStream;
     protected CustomConfig customConfig;
 
     /* Constructor */
 
-    public AbstractRomHandler(Random random, PrintStream logStream) {
+    public AbstractRomHandler(RandomSource random, PrintStream logStream) {
         this.random = random;
         this.logStream = logStream;
     }
@@ -62,6 +63,10 @@ public abstract class AbstractRomHandler implements RomHandler {
         this.logStream = logStream;
     }
 
+    public RandomSource getRandomSource() {
+        return random;
+    }
+
     public void setPokemonPool(GenRestrictions restrictions) {
         restrictionsSet = true;
         mainPokemonList = this.allPokemonWithoutNull();
@@ -593,47 +598,24 @@ public abstract class AbstractRomHandler implements RomHandler {
                     }
                 });
             }
+            // Every pokemon is used once before any is used again
+            PokemonDeck deck = new PokemonDeck(allPokes);
             for (EncounterSet area : scrambledEncounters) {
-                List<Pokemon> pickablePokemon = allPokes;
-                pickablePokemon = pickablePokemon.stream().filter(Objects::nonNull).collect(Collectors.toList());
-                if (!area.getBannedPokemon().isEmpty()) {
-                    pickablePokemon = new ArrayList<>(allPokes);
-                    pickablePokemon.removeAll(area.getBannedPokemon());
-                }
+                deck.setExcluded(area.getBannedPokemon());
                 for (Encounter enc : area.getEncounters()) {
                     // Pick a random pokemon
-                    if (pickablePokemon.isEmpty()) {
+                    Pokemon picked = deck.draw(this.random);
+                    if (picked == null) {
                         // Only banned pokes are left, ignore them and pick
                         // something else for now.
-                        List<Pokemon> tempPickable = noLegendaries ? new ArrayList<>(noLegendaryList) :
-                                new ArrayList<>(mainPokemonList);
-                        tempPickable.removeAll(banned);
-                        tempPickable = tempPickable.stream().filter(Objects::nonNull).collect(Collectors.toList());
+                        List<Pokemon> tempPickable = new ArrayList<>(allPokes);
                         tempPickable.removeAll(area.getBannedPokemon());
                         if (tempPickable.isEmpty()) {
                             throw new RandomizationException("ERROR: Couldn't replace a wild Pokemon!");
                         }
-                        int picked = this.random.nextInt(tempPickable.size());
-                        enc.setPokemon(tempPickable.get(picked));
-                    } else {
-                        // Picked this Pokemon, remove it
-                        int picked = this.random.nextInt(pickablePokemon.size());
-                        enc.setPokemon(pickablePokemon.get(picked));
-                        pickablePokemon.remove(picked);
-                        if (allPokes != pickablePokemon) {
-                            allPokes.remove(enc.getPokemon());
-                        }
-                        if (allPokes.isEmpty()) {
-                            // Start again
-                            allPokes.addAll(noLegendaries ? noLegendaryList : mainPokemonList);
-                            allPokes.removeAll(banned);
-                            allPokes = allPokes.stream().filter(Objects::nonNull).collect(Collectors.toList());
-                            if (pickablePokemon != allPokes) {
-                                pickablePokemon.addAll(allPokes);
-                                pickablePokemon.removeAll(area.getBannedPokemon());
-                            }
-                        }
+                        picked = tempPickable.get(this.random.nextInt(tempPickable.size()));
                     }
+                    enc.setPokemon(picked);
                 }
             }
         } else if (typeThemed) {
@@ -671,11 +653,13 @@ public abstract class AbstractRomHandler implements RomHandler {
             List<Pokemon> allowedPokes = noLegendaries ? new ArrayList<>(noLegendaryList)
                     : new ArrayList<>(mainPokemonList);
             allowedPokes.removeAll(banned);
+            PowerLevelIndex allowedIndex = new PowerLevelIndex(allowedPokes);
             for (EncounterSet area : scrambledEncounters) {
-                List<Pokemon> localAllowed = allowedPokes;
+                PowerLevelIndex localAllowed = allowedIndex;
                 if (!area.getBannedPokemon().isEmpty()) {
-                    localAllowed = new ArrayList<>(allowedPokes);
-                    localAllowed.removeAll(area.getBannedPokemon());
+                    List<Pokemon> areaAllowed = new ArrayList<>(allowedPokes);
+                    areaAllowed.removeAll(area.getBannedPokemon());
+                    localAllowed = new PowerLevelIndex(areaAllowed);
                 }
                 for (Encounter enc : area.getEncounters()) {
                     enc.setPokemon(pickWildPowerLvlReplacement(localAllowed, enc.getPokemon(), false, null));
@@ -821,16 +805,18 @@ public abstract class AbstractRomHandler implements RomHandler {
             List<Pokemon> allowedPokes = noLegendaries ? new ArrayList<Pokemon>(noLegendaryList)
                     : new ArrayList<>(mainPokemonList);
             allowedPokes.removeAll(banned);
+            PowerLevelIndex allowedIndex = new PowerLevelIndex(allowedPokes);
             for (EncounterSet area : scrambledEncounters) {
                 // Poke-set
                 Set<Pokemon> inArea = pokemonInArea(area);
                 // Build area map using randoms
                 Map<Pokemon, Pokemon> areaMap = new TreeMap<Pokemon, Pokemon>();
                 List<Pokemon> usedPks = new ArrayList<Pokemon>();
-                List<Pokemon> localAllowed = allowedPokes;
+                PowerLevelIndex localAllowed = allowedIndex;
                 if (!area.getBannedPokemon().isEmpty()) {
-                    localAllowed = new ArrayList<Pokemon>(allowedPokes);
-                    localAllowed.removeAll(area.getBannedPokemon());
+                    List<Pokemon> areaAllowed = new ArrayList<Pokemon>(allowedPokes);
+                    areaAllowed.removeAll(area.getBannedPokemon());
+                    localAllowed = new PowerLevelIndex(areaAllowed);
                 }
                 for (Pokemon areaPk : inArea) {
                     Pokemon picked = pickWildPowerLvlReplacement(localAllowed, areaPk, false, usedPks);
@@ -883,19 +869,21 @@ public abstract class AbstractRomHandler implements RomHandler {
             remainingLeft.remove(bannedPK);
             remainingRight.remove(bannedPK);
         }
+        PowerLevelIndex remainingRightIndex = new PowerLevelIndex(remainingRight);
         while (!remainingLeft.isEmpty()) {
             int pickedLeft = this.random.nextInt(remainingLeft.size());
             if (usePowerLevels) {
                 Pokemon pickedLeftP = remainingLeft.remove(pickedLeft);
                 Pokemon pickedRightP = null;
-                if (remainingRight.size() == 1) {
+                if (remainingRightIndex.size() == 1) {
                     // pick this (it may or may not be the same poke)
-                    pickedRightP = remainingRight.get(0);
+                    pickedRightP = remainingRightIndex.get(remainingRightIndex.nth(0, 0));
                 } else {
                     // pick on power level with the current one blocked
-                    pickedRightP = pickWildPowerLvlReplacement(remainingRight, pickedLeftP, true, null);
+                    pickedRightP = pickWildPowerLvlReplacement(remainingRightIndex, pickedLeftP, true, null);
                 }
-                remainingRight.remove(pickedRightP);
+                // Only the index keeps track of what's left, remainingRight stays the full pool
+                remainingRightIndex.remove(pickedRightP);
                 translateMap.put(pickedLeftP, pickedRightP);
             } else {
                 int pickedRight = this.random.nextInt(remainingRight.size());
@@ -909,10 +897,11 @@ public abstract class AbstractRomHandler implements RomHandler {
                 remainingRight.remove(pickedRight);
                 translateMap.put(pickedLeftP, pickedRightP);
             }
-            if (remainingRight.isEmpty()) {
+            if (usePowerLevels ? remainingRightIndex.size() == 0 : remainingRight.isEmpty()) {
                 // restart
-                remainingRight.addAll(noLegendaries ? noLegendaryList : mainPokemonList);
+                remainingRight = noLegendaries ? new ArrayList<>(noLegendaryList) : new ArrayList<>(mainPokemonList);
                 remainingRight.removeAll(banned);
+                remainingRightIndex = new PowerLevelIndex(remainingRight);
             }
         }
 
@@ -940,7 +929,8 @@ public abstract class AbstractRomHandler implements RomHandler {
                         throw new RandomizationException("ERROR: Couldn't replace a wild Pokemon!");
                     }
                     if (usePowerLevels) {
-                        enc.setPokemon(pickWildPowerLvlReplacement(tempPickable, enc.getPokemon(), false, null));
+                        enc.setPokemon(pickWildPowerLvlReplacement(new PowerLevelIndex(tempPickable), enc.getPokemon(),
+                                false, null));
                     } else {
                         int picked = this.random.nextInt(tempPickable.size());
                         enc.setPokemon(tempPickable.get(picked));
@@ -965,8 +955,8 @@ public abstract class AbstractRomHandler implements RomHandler {
         List<Trainer> scrambledTrainers = new ArrayList<>(currentTrainers);
         Collections.shuffle(scrambledTrainers, this.random);
 
-        cachedReplacementLists = new TreeMap<>();
-        cachedAllList = noLegendaries ? new ArrayList<>(noLegendaryList) : new ArrayList<>(mainPokemonList);
+        cachedReplacementIndexes = new TreeMap<>();
+        cachedAllIndex = new PowerLevelIndex(noLegendaries ? noLegendaryList : mainPokemonList);
 
         // Fully random is easy enough - randomize then worry about rival
         // carrying starter at the end
@@ -1003,9 +993,8 @@ public abstract class AbstractRomHandler implements RomHandler {
                                       boolean noEarlyWonderGuard, int levelModifier, boolean fillBossTeams) {
         checkPokemonRestrictions();
         List<Trainer> currentTrainers = this.getTrainers();
-        cachedReplacementLists = new TreeMap<>();
-        cachedAllList = noLegendaries ? new ArrayList<>(noLegendaryList) : new ArrayList<>(
-                mainPokemonList);
+        cachedReplacementIndexes = new TreeMap<>();
+        cachedAllIndex = new PowerLevelIndex(noLegendaries ? noLegendaryList : mainPokemonList);
         typeWeightings = new TreeMap<>();
         totalTypeWeighting = 0;
 
@@ -1140,8 +1129,8 @@ public abstract class AbstractRomHandler implements RomHandler {
         List<Trainer> scrambledTrainers = new ArrayList<>(currentTrainers);
         Collections.shuffle(scrambledTrainers, this.random);
 
-        cachedReplacementLists = new TreeMap<>();
-        cachedAllList = noLegendaries ? new ArrayList<>(noLegendaryList) : new ArrayList<>(mainPokemonList);
+        cachedReplacementIndexes = new TreeMap<>();
+        cachedAllIndex = new PowerLevelIndex(noLegendaries ? noLegendaryList : mainPokemonList);
 
         // Fully random is easy enough - randomize then worry about rival
         // carrying starter at the end
@@ -1347,6 +1336,8 @@ public abstract class AbstractRomHandler implements RomHandler {
         Set<Integer> allBanned = new HashSet<Integer>(noBroken ? this.getGameBreakingMoves() : Collections.EMPTY_SET);
         allBanned.addAll(hms);
         allBanned.addAll(this.getMovesBannedFromLevelup());
+        allBanned.addAll(getBannedRandomMoves());
+        Set<Integer> bannedForDamaging = new HashSet<>(getBannedForDamagingMoves());
 
         // Build sets of moves
         List<Move> validMoves = new ArrayList<>();
@@ -1355,7 +1346,7 @@ public abstract class AbstractRomHandler implements RomHandler {
         Map<Type, List<Move>> validTypeDamagingMoves = new HashMap<>();
 
         for (Move mv : allMoves) {
-            if (mv != null && !getBannedRandomMoves().contains(mv.getNumber()) && !allBanned.contains(mv.getNumber()) && mv.isValid()) {
+            if (mv != null && !allBanned.contains(mv.getNumber()) && mv.isValid()) {
                 validMoves.add(mv);
                 Type moveType = mv.getType();
                 if (moveType != null) {
@@ -1365,7 +1356,7 @@ public abstract class AbstractRomHandler implements RomHandler {
                     validTypeMoves.get(moveType).add(mv);
                 }
 
-                if (!getBannedForDamagingMoves().contains(mv.getNumber())) {
+                if (!bannedForDamaging.contains(mv.getNumber())) {
                     if (mv.getPower() >= 2 * GlobalConstants.MIN_DAMAGING_MOVE_POWER
                             || (mv.getPower() >= GlobalConstants.MIN_DAMAGING_MOVE_POWER && mv.getHitratio() >= 90)) {
                         validDamagingMoves.add(mv);
@@ -1380,8 +1371,19 @@ public abstract class AbstractRomHandler implements RomHandler {
             }
         }
 
+        // The same pools as index arrays, so picks can skip learnt moves without retrying
+        int maxMoveNumber = allMoves.stream().filter(Objects::nonNull).mapToInt(Move::getNumber).max().orElse(0);
+        MovePool validPool = new MovePool(validMoves, maxMoveNumber);
+        MovePool validDamagingPool = new MovePool(validDamagingMoves, maxMoveNumber);
+        Map<Type, MovePool> validTypePools = new EnumMap<>(Type.class);
+        validTypeMoves.forEach((type, typeMoves) -> validTypePools.put(type, new MovePool(typeMoves, maxMoveNumber)));
+        Map<Type, MovePool> validTypeDamagingPools = new EnumMap<>(Type.class);
+        validTypeDamagingMoves.forEach((type, typeMoves) ->
+                validTypeDamagingPools.put(type, new MovePool(typeMoves, maxMoveNumber)));
+
+        BitSet learnt = new BitSet(maxMoveNumber + 1);
         for (Pokemon pkmn : getPokemon()) {
-            Set<Integer> learnt = new TreeSet<>();
+            learnt.clear();
             List<MoveLearnt> moves = getMoveLearnts(forceFourStartingMoves, pkmn);
 
             // Find last lv1 move
@@ -1450,38 +1452,38 @@ public abstract class AbstractRomHandler implements RomHandler {
                 }
 
                 // select a list to pick a move from that has at least one free
-                List<Move> pickList = validMoves;
+                MovePool pickList = validPool;
                 if (attemptDamaging) {
                     if (typeOfMove != null) {
-                        if (validTypeDamagingMoves.containsKey(typeOfMove)
-                                && checkForUnusedMove(validTypeDamagingMoves.get(typeOfMove), learnt)) {
-                            pickList = validTypeDamagingMoves.get(typeOfMove);
-                        } else if (checkForUnusedMove(validDamagingMoves, learnt)) {
-                            pickList = validDamagingMoves;
+                        if (validTypeDamagingPools.containsKey(typeOfMove)
+                                && validTypeDamagingPools.get(typeOfMove).hasUnknownMove(learnt)) {
+                            pickList = validTypeDamagingPools.get(typeOfMove);
+                        } else if (validDamagingPool.hasUnknownMove(learnt)) {
+                            pickList = validDamagingPool;
                         }
-                    } else if (checkForUnusedMove(validDamagingMoves, learnt)) {
-                        pickList = validDamagingMoves;
+                    } else if (validDamagingPool.hasUnknownMove(learnt)) {
+                        pickList = validDamagingPool;
                     }
                 } else if (typeOfMove != null) {
-                    if (validTypeMoves.containsKey(typeOfMove)
-                            && checkForUnusedMove(validTypeMoves.get(typeOfMove), learnt)) {
-                        pickList = validTypeMoves.get(typeOfMove);
+                    if (validTypePools.containsKey(typeOfMove)
+                            && validTypePools.get(typeOfMove).hasUnknownMove(learnt)) {
+                        pickList = validTypePools.get(typeOfMove);
                     }
                 }
 
-                // now pick a move until we get a valid one
-                Move mv = pickList.get(random.nextInt(pickList.size()));
-                while (learnt.contains(mv.getNumber())) {
-                    mv = pickList.get(random.nextInt(pickList.size()));
+                // now pick one of the moves it doesn't know yet
+                int mv = pickList.pick(random, learnt);
+                if (mv < 0) {
+                    throw new RandomizationException("Not enough valid moves to fill the learnset of " + pkmn.getName());
                 }
 
                 // write it
-                moves.get(i).setMove(mv.getNumber());
+                moves.get(i).setMove(mv);
                 if (i == lv1index) {
                     // just in case, set this to lv1
                     moves.get(i).setLevel(1);
                 }
-                learnt.add(mv.getNumber());
+                learnt.set(mv);
 
             }
         }
@@ -2413,6 +2415,14 @@ public abstract class AbstractRomHandler implements RomHandler {
             }
         }
 
+        // Evolutions keep the EXP curve, so only pokemon on the same curve are ever candidates. Kept in
+        // mainPokemonList order so the candidates come out in the same order as checking the whole list
+        Map<ExpCurve, List<Pokemon>> pokemonByCurve = new EnumMap<>(ExpCurve.class);
+        for (Pokemon pk : mainPokemonList) {
+            pokemonByCurve.computeIfAbsent(pk.getGrowthCurve(), curve -> new ArrayList<>()).add(pk);
+        }
+        Predicate<Pokemon> evolvesLater = pk -> !originalEvos.get(pk).isEmpty();
+
         List<Pokemon> replacements = new ArrayList<>();
 
         int loops = 0;
@@ -2424,6 +2434,7 @@ public abstract class AbstractRomHandler implements RomHandler {
                 pk.getEvolutionsTo().clear();
             }
             newEvoPairs.clear();
+            EvolutionForest forest = new EvolutionForest(pokemonPool);
 
             // Shuffle pokemon list so the results aren't overly predictable.
             Collections.shuffle(pokemonPool, this.random);
@@ -2435,17 +2446,13 @@ public abstract class AbstractRomHandler implements RomHandler {
                     replacements.clear();
 
                     // Step 1: base filters
-                    for (Pokemon pk : mainPokemonList) {
+                    // Force same EXP curve (mandatory)
+                    for (Pokemon pk : pokemonByCurve.get(fromPK.getGrowthCurve())) {
                         // Prevent evolving into oneself (mandatory)
                         if (pk == fromPK) {
                             continue;
                         }
 
-                        // Force same EXP curve (mandatory)
-                        if (pk.getGrowthCurve() != fromPK.getGrowthCurve()) {
-                            continue;
-                        }
-
                         EvolutionPair ep = new EvolutionPair(fromPK, pk);
                         // Prevent split evos choosing the same Pokemon
                         // (mandatory)
@@ -2459,34 +2466,12 @@ public abstract class AbstractRomHandler implements RomHandler {
                         }
 
                         // Prevent evolution that causes cycle (mandatory)
-                        if (evoCycleCheck(fromPK, pk)) {
+                        if (forest.wouldCycle(fromPK, pk)) {
                             continue;
                         }
 
                         // Prevent evolution that exceeds stage limit
-                        Evolution tempEvo = new Evolution(fromPK, pk, false, EvolutionType.EVO_NONE, 0);
-                        fromPK.getEvolutionsFrom().add(tempEvo);
-                        pk.getEvolutionsTo().add(tempEvo);
-                        boolean exceededLimit = false;
-
-                        Set<Pokemon> related = relatedPokemon(fromPK);
-
-                        for (Pokemon pk2 : related) {
-                            int numPreEvos = numPreEvolutions(pk2, stageLimit);
-                            if (numPreEvos >= stageLimit) {
-                                exceededLimit = true;
-                                break;
-                            } else if (numPreEvos == stageLimit - 1 && pk2.getEvolutionsFrom().isEmpty()
-                                    && !originalEvos.get(pk2).isEmpty()) {
-                                exceededLimit = true;
-                                break;
-                            }
-                        }
-
-                        fromPK.getEvolutionsFrom().remove(tempEvo);
-                        pk.getEvolutionsTo().remove(tempEvo);
-
-                        if (exceededLimit) {
+                        if (forest.exceedsStageLimit(fromPK, pk, stageLimit, evolvesLater)) {
                             continue;
                         }
 
@@ -2535,6 +2520,7 @@ public abstract class AbstractRomHandler implements RomHandler {
                     Evolution newEvo = new Evolution(fromPK, picked, ev.isCarryStats(), ev.getType(), ev.getExtraInfo());
                     fromPK.getEvolutionsFrom().add(newEvo);
                     picked.getEvolutionsTo().add(newEvo);
+                    forest.add(fromPK, picked);
                     newEvoPairs.add(new EvolutionPair(fromPK, picked));
                 }
 
@@ -2656,36 +2642,6 @@ public abstract class AbstractRomHandler implements RomHandler {
         }
     }
 
-    /**
-     * Check whether adding an evolution from one Pokemon to another will cause
-     * an evolution cycle.
-     */
-    private boolean evoCycleCheck(Pokemon from, Pokemon to) {
-        Evolution tempEvo = new Evolution(from, to, false, EvolutionType.EVO_NONE, 0);
-        from.getEvolutionsFrom().add(tempEvo);
-        Set<Pokemon> visited = new HashSet<Pokemon>();
-        Set<Pokemon> recStack = new HashSet<Pokemon>();
-        boolean recur = isCyclic(from, visited, recStack);
-        from.getEvolutionsFrom().remove(tempEvo);
-        return recur;
-    }
-
-    private boolean isCyclic(Pokemon pk, Set<Pokemon> visited, Set<Pokemon> recStack) {
-        if (!visited.contains(pk)) {
-            visited.add(pk);
-            recStack.add(pk);
-            for (Evolution ev : pk.getEvolutionsFrom()) {
-                if (!visited.contains(ev.getTo()) && isCyclic(ev.getTo(), visited, recStack)) {
-                    return true;
-                } else if (recStack.contains(ev.getTo())) {
-                    return true;
-                }
-            }
-        }
-        recStack.remove(pk);
-        return false;
-    }
-
     private interface BasePokemonAction {
         void applyTo(Pokemon pk);
     }
@@ -2746,15 +2702,6 @@ public abstract class AbstractRomHandler implements RomHandler {
         }
     }
 
-    private boolean checkForUnusedMove(List<Move> potentialList, Set<Integer> alreadyUsed) {
-        for (Move mv : potentialList) {
-            if (!alreadyUsed.contains(mv.getNumber())) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     private List<Pokemon> pokemonOfType(Type type, boolean noLegendaries) {
         List<Pokemon> typedPokes = new ArrayList<>();
         for (Pokemon pk : mainPokemonList) {
@@ -2941,27 +2888,6 @@ public abstract class AbstractRomHandler implements RomHandler {
 
     }
 
-    // Return the max depth of pre-evolutions a Pokemon has
-    private int numPreEvolutions(Pokemon pk, int maxInterested) {
-        return numPreEvolutions(pk, 0, maxInterested);
-    }
-
-    private int numPreEvolutions(Pokemon pk, int depth, int maxInterested) {
-        if (pk.getEvolutionsTo().isEmpty()) {
-            return 0;
-        } else {
-            if (depth == maxInterested - 1) {
-                return 1;
-            } else {
-                int maxPreEvos = 0;
-                for (Evolution ev : pk.getEvolutionsTo()) {
-                    maxPreEvos = Math.max(maxPreEvos, numPreEvolutions(ev.getFrom(), depth + 1, maxInterested) + 1);
-                }
-                return maxPreEvos;
-            }
-        }
-    }
-
     private int numEvolutions(Pokemon pk) {
         return numEvolutions(pk, 0, 2);
     }
@@ -3014,108 +2940,103 @@ public abstract class AbstractRomHandler implements RomHandler {
         return pokemon;
     }
 
-    private Set<Pokemon> relatedPokemon(Pokemon original) {
-        Set<Pokemon> results = new HashSet<Pokemon>();
-        results.add(original);
-        Queue<Pokemon> toCheck = new LinkedList<Pokemon>();
-        toCheck.add(original);
-        while (!toCheck.isEmpty()) {
-            Pokemon check = toCheck.poll();
-            for (Evolution ev : check.getEvolutionsFrom()) {
-                if (!results.contains(ev.getTo())) {
-                    results.add(ev.getTo());
-                    toCheck.add(ev.getTo());
-                }
-            }
-            for (Evolution ev : check.getEvolutionsTo()) {
-                if (!results.contains(ev.getFrom())) {
-                    results.add(ev.getFrom());
-                    toCheck.add(ev.getFrom());
-                }
-            }
-        }
-        return results;
-    }
-
-    private Map<Type, List<Pokemon>> cachedReplacementLists;
-    private List<Pokemon> cachedAllList;
+    private Map<Type, PowerLevelIndex> cachedReplacementIndexes;
+    private PowerLevelIndex cachedAllIndex;
 
     protected Pokemon pickReplacement(Pokemon current, boolean usePowerLevels, Type type, boolean noLegendaries,
                                     boolean wonderGuardAllowed) {
-        List<Pokemon> pickFrom = cachedAllList;
+        PowerLevelIndex pickFrom = cachedAllIndex;
         if (type != null && type != Type.NONE && type != Type.MYSTERY && type != Type.STELLAR) {
-            if (!cachedReplacementLists.containsKey(type)) {
-                cachedReplacementLists.put(type, pokemonOfType(type, noLegendaries));
+            if (!cachedReplacementIndexes.containsKey(type)) {
+                cachedReplacementIndexes.put(type, new PowerLevelIndex(pokemonOfType(type, noLegendaries)));
             }
-            pickFrom = cachedReplacementLists.get(type);
+            pickFrom = cachedReplacementIndexes.get(type);
         }
 
         //If there's no valid pokemon of the chosen type just go back to having them all
         if (pickFrom.size() == 0) {
-            pickFrom = cachedAllList;
+            pickFrom = cachedAllIndex;
         }
 
-        pickFrom = pickFrom.stream().filter(Objects::nonNull).collect(Collectors.toList());
-
         if (usePowerLevels && current != null) {
+            if (!wonderGuardAllowed) {
+                pickFrom = pickFrom.withoutWonderGuard();
+            }
             // start with within 10% and add 5% either direction till we find
-            // something
+            // something. Every round counts all the pokemon in its window again,
+            // so the ones closest to the current bst are more likely to be picked
             int currentBST = current.bstForPowerLevels();
             int minTarget = currentBST - currentBST / 10;
             int maxTarget = currentBST + currentBST / 10;
-            List<Pokemon> canPick = new ArrayList<>();
+            List<int[]> windows = new ArrayList<>();
+            int canPick = 0;
             int expandRounds = 0;
-            while (canPick.isEmpty() || (canPick.size() < 3 && expandRounds < 2)) {
-                for (Pokemon pk : pickFrom) {
-                    if (pk.bstForPowerLevels() >= minTarget
-                            && pk.bstForPowerLevels() <= maxTarget
-                            && (wonderGuardAllowed || (pk.getAbility1() != GlobalConstants.WONDER_GUARD_INDEX
-                            && pk.getAbility2() != GlobalConstants.WONDER_GUARD_INDEX && pk.getAbility3() != GlobalConstants.WONDER_GUARD_INDEX))) {
-                        canPick.add(pk);
-                    }
-                }
+            while (canPick == 0 || (canPick < 3 && expandRounds < 2)) {
+                int from = pickFrom.from(minTarget);
+                int to = pickFrom.to(maxTarget);
+                windows.add(new int[] {from, to});
+                canPick += pickFrom.count(from, to);
                 minTarget -= currentBST / 20;
                 maxTarget += currentBST / 20;
                 expandRounds++;
             }
-            return canPick.get(this.random.nextInt(canPick.size()));
+            int picked = this.random.nextInt(canPick);
+            int window = 0;
+            while (picked >= pickFrom.count(windows.get(window)[0], windows.get(window)[1])) {
+                picked -= pickFrom.count(windows.get(window)[0], windows.get(window)[1]);
+                window++;
+            }
+            return pickFrom.get(pickFrom.nth(windows.get(window)[0], picked));
         } else {
+            List<Pokemon> pokemon = pickFrom.getPokemon();
             if (wonderGuardAllowed) {
-                return pickFrom.get(this.random.nextInt(pickFrom.size()));
+                return pokemon.get(this.random.nextInt(pokemon.size()));
             } else {
-                Pokemon pk = pickFrom.get(this.random.nextInt(pickFrom.size()));
-                while (pk.getAbility1() == GlobalConstants.WONDER_GUARD_INDEX
-                        || pk.getAbility2() == GlobalConstants.WONDER_GUARD_INDEX
-                        || pk.getAbility3() == GlobalConstants.WONDER_GUARD_INDEX) {
-                    pk = pickFrom.get(this.random.nextInt(pickFrom.size()));
+                Pokemon pk = pokemon.get(this.random.nextInt(pokemon.size()));
+                while (PowerLevelIndex.hasWonderGuard(pk)) {
+                    pk = pokemon.get(this.random.nextInt(pokemon.size()));
                 }
                 return pk;
             }
         }
     }
 
-    private Pokemon pickWildPowerLvlReplacement(List<Pokemon> pokemonPool, Pokemon current, boolean banSamePokemon,
+    private Pokemon pickWildPowerLvlReplacement(PowerLevelIndex pokemonPool, Pokemon current, boolean banSamePokemon,
                                                 List<Pokemon> usedUp) {
+        List<Pokemon> excluded = new ArrayList<>();
+        if (banSamePokemon) {
+            excluded.add(current);
+        }
+        if (usedUp != null) {
+            excluded.addAll(usedUp);
+        }
         // start with within 10% and add 5% either direction till we find
         // something
         int currentBST = current.bstForPowerLevels();
         int minTarget = currentBST - currentBST / 10;
         int maxTarget = currentBST + currentBST / 10;
-        List<Pokemon> canPick = new ArrayList<>();
+        int from, to, canPick;
+        List<Integer> excludedPositions;
         int expandRounds = 0;
-        while (canPick.isEmpty() || (canPick.size() < 3 && expandRounds < 3)) {
-            for (Pokemon pk : pokemonPool) {
-                if (pk.bstForPowerLevels() >= minTarget && pk.bstForPowerLevels() <= maxTarget
-                        && (!banSamePokemon || pk != current) && (usedUp == null || !usedUp.contains(pk))
-                        && !canPick.contains(pk)) {
-                    canPick.add(pk);
-                }
-            }
+        do {
+            from = pokemonPool.from(minTarget);
+            to = pokemonPool.to(maxTarget);
+            excludedPositions = pokemonPool.positionsIn(from, to, excluded);
+            canPick = pokemonPool.count(from, to) - excludedPositions.size();
             minTarget -= currentBST / 20;
             maxTarget += currentBST / 20;
             expandRounds++;
+        } while (canPick == 0 || (canPick < 3 && expandRounds < 3));
+
+        // Skip over the excluded pokemon in the window, removed ones are already skipped by nth
+        int nth = this.random.nextInt(canPick);
+        int picked = pokemonPool.nth(from, nth);
+        for (int position : excludedPositions) {
+            if (position <= picked) {
+                picked = pokemonPool.nth(from, ++nth);
+            }
         }
-        return canPick.get(this.random.nextInt(canPick.size()));
+        return pokemonPool.get(picked);
     }
 
     /* Helper methods used by subclasses and/or this class */
@@ -0,0 +1,98 @@
+package com.dabomstew.pkrandom.romhandlers;
+
+import com.dabomstew.pkrandom.exceptions.RandomizerIOException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hands out free space in the rom for data that has to be repointed. The free runs are found with one scan when the
+ * allocator is made, then allocations are placed first fit, bumping through each run.
+ * <p>
+ * Placement matches RomFunctions.freeSpaceFinder with longAligned set: every allocation starts 4 byte aligned with
+ * some free bytes left in front of it, so terminators just before the space are kept.
+ */
+public class FreeSpaceAllocator {
+
+    // Shorter runs of the free space byte are usually part of real data, and too small to be useful anyway
+    private static final int MIN_RUN = 0x10;
+
+    // [start, end) of each free run, in rom order. The start moves up as the run is used
+    private final List<int[]> runs = new ArrayList<>();
+
+    public FreeSpaceAllocator(byte[] rom, byte freeSpace, int offset) {
+        int runStart = -1;
+        for (int i = offset; i < rom.length; i++) {
+            if (rom[i] == freeSpace) {
+                if (runStart < 0) {
+                    runStart = i;
+                }
+            } else if (runStart >= 0) {
+                addRun(runStart, i);
+                runStart = -1;
+            }
+        }
+        if (runStart >= 0) {
+            addRun(runStart, rom.length);
+        }
+    }
+
+    private void addRun(int start, int end) {
+        if (end - start >= MIN_RUN) {
+            runs.add(new int[] {start, end});
+        }
+    }
+
+    /**
+     * Returns the offset of amount bytes of free space, which won't be handed out again
+     */
+    public int allocate(int amount) {
+        for (int[] run : runs) {
+            if (fits(run[0], run[1], amount)) {
+                int start = alignedStart(run[0]);
+                run[0] = start + amount;
+                return start;
+            }
+        }
+        throw new RandomizerIOException("ROM is full: no free run of " + amount + " bytes, " + getFreeByteCount()
+                + " bytes are free in total");
+    }
+
+    public int getFreeByteCount() {
+        int count = 0;
+        for (int[] run : runs) {
+            count += run[1] - run[0];
+        }
+        return count;
+    }
+
+    /**
+     * Whether allocating each of these amounts in turn would succeed, placing them the same way allocate does. Nothing
+     * is handed out.
+     */
+    public boolean canAllocate(List<Integer> amounts) {
+        int[] starts = new int[runs.size()];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = runs.get(i)[0];
+        }
+        for (int amount : amounts) {
+            int i = 0;
+            while (i < starts.length && !fits(starts[i], runs.get(i)[1], amount)) {
+                i++;
+            }
+            if (i == starts.length) {
+                return false;
+            }
+            starts[i] = alignedStart(starts[i]) + amount;
+        }
+        return true;
+    }
+
+    private static boolean fits(int runStart, int runEnd, int amount) {
+        return runEnd - runStart >= amount + 5;
+    }
+
+    private static int alignedStart(int runStart) {
+        return (runStart + 5) & ~3;
+    }
+}
@@ -0,0 +1,72 @@
+package com.dabomstew.pkrandom.romhandlers;
+
+import com.dabomstew.pkrandom.pokemon.Move;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A fixed list of moves to randomly pick from, skipping the ones a pokemon already knows. The known moves are a bitset
+ * of move numbers, and a pick is one random number over the moves that are left, so nothing is drawn and thrown away.
+ */
+public class MovePool {
+
+    private final int[] moves;
+
+    // Position of each move number in moves, or -1
+    private final int[] positions;
+
+    // Scratch space for the positions of known moves, which are few
+    private int[] known = new int[8];
+
+    public MovePool(List<Move> moves, int maxMoveNumber) {
+        this.moves = moves.stream().mapToInt(Move::getNumber).toArray();
+        positions = new int[maxMoveNumber + 1];
+        Arrays.fill(positions, -1);
+        for (int i = 0; i < this.moves.length; i++) {
+            positions[this.moves[i]] = i;
+        }
+    }
+
+    public int size() {
+        return moves.length;
+    }
+
+    public boolean hasUnknownMove(BitSet learnt) {
+        return countKnown(learnt) < moves.length;
+    }
+
+    /**
+     * A move number picked evenly from the moves in the pool that aren't in learnt, or -1 if there are none
+     */
+    public int pick(Random random, BitSet learnt) {
+        int knownCount = countKnown(learnt);
+        if (knownCount == moves.length) {
+            return -1;
+        }
+        int index = random.nextInt(moves.length - knownCount);
+        // Step over the known moves at or before the index, in pool order
+        Arrays.sort(known, 0, knownCount);
+        for (int i = 0; i < knownCount && known[i] <= index; i++) {
+            index++;
+        }
+        return moves[index];
+    }
+
+    // Collects the pool positions of the learnt moves into known and returns how many there are
+    private int countKnown(BitSet learnt) {
+        int count = 0;
+        for (int move = learnt.nextSetBit(0); move >= 0 && move < positions.length; move = learnt.nextSetBit(move + 1)) {
+            int position = positions[move];
+            if (position >= 0) {
+                if (count == known.length) {
+                    known = Arrays.copyOf(known, count * 2);
+                }
+                known[count++] = position;
+            }
+        }
+        return count;
+    }
+}
@@ -28,11 +28,12 @@ import java.awt.image.BufferedImage;
 import java.io.PrintStream;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.Set;
 
 import com.dabomstew.pkrandom.CustomConfig;
 import com.dabomstew.pkrandom.CustomNamesSet;
 import com.dabomstew.pkrandom.MiscTweak;
+import com.dabomstew.pkrandom.RandomSource;
 import com.dabomstew.pkrandom.Settings;
 import com.dabomstew.pkrandom.pokemon.EncounterSet;
 import com.dabomstew.pkrandom.pokemon.FieldTM;
@@ -50,11 +51,11 @@ public interface RomHandler {
 
     abstract class Factory {
 
-        public RomHandler create(Random random) {
+        public RomHandler create(RandomSource random) {
             return create(random, null);
         }
 
-        public abstract RomHandler create(Random random, PrintStream log);
+        public abstract RomHandler create(RandomSource random, PrintStream log);
         public abstract boolean isLoadable(String filename);
 
 
@@ -64,8 +65,31 @@ public interface RomHandler {
     boolean loadRom(String filename);
     boolean saveRom(String filename);
 
+    // Saves a vcdiff patch from the rom as it was loaded (after any base patch) to the randomized rom
+    boolean savePatch(String filename);
+
+    // Labels the writes to the rom from now on, so the bytes written can be reported per stage
+    void setWriteStage(String stage);
+
+    Map<String, Long> getBytesWrittenByStage();
+
+    // Milliseconds spent in each phase of loading this rom, in order
+    Map<String, Long> getLoadTimings();
+
+    // Bytes of free space left for data that has to be repointed, less whatever has been handed out already
+    int getFreeSpaceByteCount();
+
     String loadedFilename();
 
+    // Whether saving to this file would write over the loaded rom (or the copy of it the handler keeps mapped)
+    boolean isLoadedRomFile(String filename);
+
+    // A fresh handler over the rom as it was originally loaded, without re-reading, re-patching or re-detecting it
+    RomHandler createFromPristine(RandomSource random);
+
+    // Reads these parts of the rom model now. Anything else is still read the first time it's used
+    void loadSubsystems(Set<RomSubsystem> subsystems);
+
     // Log stuff
     void setLog(PrintStream logStream);
 
@@ -452,6 +476,9 @@ public interface RomHandler {
 
     void setSeedUsed(Long seedUsed);
 
+    // The random source this handler was created with, seeded per run by the Randomizer
+    RandomSource getRandomSource();
+
     void randomizeWarps(int warpRandoLevel, boolean extraDeadendRemoval, boolean inGymOrder);
 
     void randomizeTypeCharts(Settings.TypeChartMod mode);
@@ -0,0 +1,27 @@
+package com.dabomstew.pkrandom.romhandlers;
+
+/**
+ * Parts of the rom model that are only read when something first needs them. The randomizer names the ones its
+ * settings will use so they can be read up front, everything else waits until it's asked for (if it ever is).
+ */
+public enum RomSubsystem {
+    // Map names, map bank sizes and field item locations
+    MAPS("Maps"),
+    // Item names and which items are free
+    ITEMS("Items"),
+    ABILITIES("Abilities"),
+    TYPE_CHART("Type chart"),
+    // Level up moves of every species
+    LEARNSETS("Learnsets");
+
+    private final String displayName;
+
+    RomSubsystem(String displayName) {
+        this.displayName = displayName;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
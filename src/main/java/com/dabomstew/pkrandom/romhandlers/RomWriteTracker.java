@@ -0,0 +1,65 @@
+package com.dabomstew.pkrandom.romhandlers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Records which parts of the rom have been written to, as a set of coalesced ranges, and how many bytes each stage
+ * of randomization wrote. Rewriting the same bytes counts towards the bytes written again but doesn't grow the ranges.
+ */
+public class RomWriteTracker {
+
+    // Start offset -> end offset (exclusive), ranges never overlap or touch
+    private final TreeMap<Integer, Integer> ranges = new TreeMap<>();
+
+    private final Map<String, Long> bytesWrittenByStage = new LinkedHashMap<>();
+
+    private String stage = "Setup";
+
+    public void written(int offset, int length) {
+        if (length <= 0) {
+            return;
+        }
+        bytesWrittenByStage.merge(stage, (long) length, Long::sum);
+
+        int start = offset;
+        int end = offset + length;
+        Map.Entry<Integer, Integer> before = ranges.floorEntry(start);
+        if (before != null && before.getValue() >= start) {
+            if (before.getValue() >= end) {
+                return;
+            }
+            start = before.getKey();
+        }
+        Map.Entry<Integer, Integer> next;
+        while ((next = ranges.ceilingEntry(start)) != null && next.getKey() <= end) {
+            end = Math.max(end, next.getValue());
+            ranges.remove(next.getKey());
+        }
+        ranges.put(start, end);
+    }
+
+    /**
+     * The written ranges as sorted [start, end) pairs
+     */
+    public List<int[]> getRanges() {
+        List<int[]> result = new ArrayList<>(ranges.size());
+        ranges.forEach((start, end) -> result.add(new int[] {start, end}));
+        return result;
+    }
+
+    /**
+     * Writes from now on are counted towards this stage
+     */
+    public void setStage(String stage) {
+        this.stage = stage;
+    }
+
+    public Map<String, Long> getBytesWrittenByStage() {
+        return Collections.unmodifiableMap(bytesWrittenByStage);
+    }
+}
@@ -29,14 +29,21 @@ import com.dabomstew.pkrandom.constants.GlobalConstants;
 import com.dabomstew.pkrandom.exceptions.RandomizerIOException;
 import com.dabomstew.pkrandom.pokemon.*;
 import com.dabomstew.pkrandom.romhandlers.AbstractGBRomHandler;
+import com.dabomstew.pkrandom.romhandlers.FreeSpaceAllocator;
+import com.dabomstew.pkrandom.romhandlers.MovePool;
+import com.dabomstew.pkrandom.romhandlers.RomSubsystem;
 import com.dabomstew.pkrandom.DSDecmp;
 import com.dabomstew.pkrandom.warps.WarpRemapping;
 
 import java.awt.image.BufferedImage;
+import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
-import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static com.dabomstew.pkrandom.constants.EmeraldEXConstants.ItemConstants.*;
@@ -46,31 +53,15 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
 
     private final List<RomEntry> roms;
 
-    public EmeraldEXRomHandler(Random random, PrintStream logStream, List<RomEntry> roms) {
+    // Copies made from the pristine rom inherit these from the handler they're made from
+    private boolean parallelLoading = Runtime.getRuntime().availableProcessors() > 1;
+    private int warpParallelAttempts = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+    public EmeraldEXRomHandler(RandomSource random, PrintStream logStream, List<RomEntry> roms) {
         super(random, logStream);
         this.roms = roms;
     }
 
-    private void loadTextTable(String filename) {
-        try {
-            Scanner sc = new Scanner(FileFunctions.openConfig(filename + ".tbl"), StandardCharsets.UTF_8);
-            while (sc.hasNextLine()) {
-                String q = sc.nextLine();
-                if (!q.trim().isEmpty()) {
-                    String[] r = q.split("=", 2);
-                    if (r[1].endsWith("\r\n")) {
-                        r[1] = r[1].substring(0, r[1].length() - 2);
-                    }
-                    tb[Integer.parseInt(r[0], 16)] = r[1];
-                    d.put(r[1], (byte) Integer.parseInt(r[0], 16));
-                }
-            }
-            sc.close();
-        } catch (IOException e) {
-            // Do nothing
-        }
-    }
-
     // This ROM's data
     private Pokemon[] pokes;
     private Pokemon[] pokesInternal;
@@ -79,11 +70,16 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
     private Move[] moves;
     private RomEntry romEntry;
     private boolean havePatchedObedience;
-    private String[] tb;
-    private Map<String, Byte> d;
+    private FreeSpaceAllocator freeSpace;
+    private List<Trainer> trainers;
+    private boolean trainersChanged;
+    private WildAreas wildAreasByTime;
+    private WildAreas wildAreasDayOnly;
+    private TextCodec text;
+    // Reused for encoding strings before they are written
+    private byte[] textBuffer = new byte[32];
     private String[] abilityNames;
     private String[] itemNames;
-    private boolean mapLoadingDone;
     private List<ItemLocationInner> itemOffs;
     private String[][] mapNames;
     private boolean isRomHack;
@@ -93,12 +89,12 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
     private String[] pokeNames;
     private ItemList allowedItems;
     private ItemList nonBadItems;
-    private List<Integer> freeItems = new ArrayList<>();
-    private Map<Type, TypeInteractions> typeEffectivenessTable = new HashMap<>();
+    private List<Integer> freeItems;
+    private Map<Type, TypeInteractions> typeEffectivenessTable;
 
     @Override
-    public boolean detectRom(byte[] rom) {
-        return EmeraldExRomUtils.detectRomInner(rom, rom.length, roms);
+    public boolean detectRom(byte[] rom, Supplier<String> md5) {
+        return EmeraldExRomUtils.detectRomInner(rom, rom.length, roms, md5);
     }
 
     @Override
@@ -110,9 +106,12 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
             }
         }
 
-        tb = new String[256];
-        d = new HashMap<>();
         isRomHack = false;
+        freeSpace = null;
+        trainers = null;
+        trainersChanged = false;
+        wildAreasByTime = null;
+        wildAreasDayOnly = null;
 
         romEntry.getEntries().put("MoveNames", readPointer(EmeraldEXConstants.efrlgMoveNamesPointer));
         romEntry.getEntries().put("AbilityNames", readPointer(EmeraldEXConstants.efrlgAbilityNamesPointer));
@@ -123,15 +122,63 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
         romEntry.getEntries().put("MoveTutorCompatibility",
                 romEntry.getValue("MoveTutorData") + romEntry.getValue("MoveTutorMoves") * 2);
 
-        loadTextTable(romEntry.getTableFile());
+        text = TextCodec.forTable(romEntry.getTableFile());
+
+        // map banks
+        int mapBanksPtr = romEntry.getValue("MapBanksPtr");
+        romEntry.getEntries().put("MapHeaders", mapBanksPtr);
+
+        // map labels
+        int mapLabelsPtr = romEntry.getValue("MapLabelsPtr");
+        romEntry.getEntries().put("MapLabels", mapLabelsPtr);
 
-        // We need to parse the species info
+        if (parallelLoading) {
+            loadRomModelInParallel();
+        } else {
+            loadRomModel();
+        }
+
+        // Tweaks ban items from these, so each handler needs its own copy rather than the config's shared lists
+        allowedItems = (customConfig.getAllowedItems() != null ? customConfig.getAllowedItems() : EmeraldEXConstants.allowedItems).copy();
+        nonBadItems = (customConfig.getNonBadItems() != null ? customConfig.getNonBadItems() : EmeraldEXConstants.nonBadItems).copy();
+    }
+
+    private void loadRomModel() {
         loadPokemonNames();
         loadPokedex();
+        loadSpecies();
+        loadMoves();
+    }
+
+    /**
+     * Runs the same parsers as loadRomModel on the fork join pool. The species need both the names and the pokedex,
+     * the moves only read their own part of the rom. None of them may change romEntry while the others read it.
+     */
+    private void loadRomModelInParallel() {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        CompletableFuture<Void> names = CompletableFuture.runAsync(this::loadPokemonNames, pool);
+        CompletableFuture<Void> pokedex = CompletableFuture.runAsync(this::loadPokedex, pool);
+        CompletableFuture<Void> species = CompletableFuture.allOf(names, pokedex).thenRunAsync(this::loadSpecies, pool);
+        CompletableFuture<Void> all = CompletableFuture.allOf(species,
+                CompletableFuture.runAsync(this::loadMoves, pool));
+        try {
+            all.join();
+        } catch (CompletionException e) {
+            // Fail the same way as loading one parser after another
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private void loadSpecies() {
         loadPokemonStatsAndMoves();
         constructPokemonList();
         populateEvolutions();
-        loadMoves();
 
         List<Integer> bannedMonNumbers = customConfig.getBannedPlayerMonNumbers() != null ?
                 customConfig.getBannedPlayerMonNumbers() :
@@ -143,39 +190,75 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
                                      .filter(Objects::nonNull)
                                      .filter(p -> bannedMonNumbers.contains(p.getSpeciesNumber()))
                                      .collect(Collectors.toList());
+    }
 
-        // map banks
-        int mapBanksPtr = romEntry.getValue("MapBanksPtr");
-
-        romEntry.getEntries().put("MapHeaders", mapBanksPtr);
-        this.determineMapBankSizes();
-
-        // map labels
-        int mapLabelsPtr = romEntry.getValue("MapLabelsPtr");
-        romEntry.getEntries().put("MapLabels", mapLabelsPtr);
+    /**
+     * Everything here is only read by some settings, so it waits until it's first needed. None of them can run
+     * alongside the rom model parsers: the maps add to romEntry.
+     */
+    @Override
+    protected void loadSubsystem(RomSubsystem subsystem) {
+        switch (subsystem) {
+        case MAPS:
+            determineMapBankSizes();
+            preprocessMaps();
+            break;
+        case ITEMS:
+            loadItemNames();
+            break;
+        case ABILITIES:
+            loadAbilityNames();
+            break;
+        case TYPE_CHART:
+            loadTypeEffectivenessTable();
+            break;
+        case LEARNSETS:
+            loadLearnsets();
+            break;
+        }
+    }
 
-        mapLoadingDone = false;
-        loadAbilityNames();
-        loadItemNames();
-        loadTypeEffectivenessTable();
+    /**
+     * Seed farms already load a rom on each of their threads, so they can turn this off to keep the pool for other
+     * work. The rom model is the same either way.
+     */
+    public void setParallelLoading(boolean parallel) {
+        parallelLoading = parallel;
+    }
 
-        allowedItems = customConfig.getAllowedItems() != null ? customConfig.getAllowedItems() : EmeraldEXConstants.allowedItems.copy();
-        nonBadItems = customConfig.getNonBadItems() != null ? customConfig.getNonBadItems() : EmeraldEXConstants.nonBadItems.copy();
+    /**
+     * How many seeds the warp randomizer tries at once, 1 tries them one after the other. The warps for a given seed
+     * are the same either way.
+     */
+    public void setWarpParallelAttempts(int attempts) {
+        warpParallelAttempts = Math.max(1, attempts);
     }
 
     @Override
-    public byte[] patchRomIfNeeded(byte[] rom) throws IOException {
-        if (rom.length == 16 * 1024 * 1024) {
-            return FileFunctions.applyPatch(rom, "SPDX-0.5.3a.xdelta");
+    public File patchRomIfNeeded(File rom) throws IOException {
+        if (rom.length() == 16 * 1024 * 1024) {
+            return PatchedRomCache.applyPatch(rom, "SPDX-0.5.3a.xdelta");
         }
 
         return rom;
     }
 
+    @Override
+    protected AbstractGBRomHandler newHandler(RandomSource random) {
+        EmeraldEXRomHandler copy = new EmeraldEXRomHandler(random, null, roms);
+        copy.parallelLoading = parallelLoading;
+        copy.warpParallelAttempts = warpParallelAttempts;
+        return copy;
+    }
+
     @Override
     public void savingRom() {
         savePokemonStats();
         saveMoves();
+        if (trainersChanged) {
+            saveTrainers();
+            trainersChanged = false;
+        }
     }
 
     private void loadPokedex() {
@@ -211,8 +294,9 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
         pokes = new Pokemon[this.pokedexCount + 1];
         int numInternalPokes = romEntry.getValue("PokemonCount");
         pokesInternal = new Pokemon[numInternalPokes + 1];
+        SpeciesFlags speciesFlags = new SpeciesFlags(numInternalPokes, customConfig.getLegendaries());
         for (int i = 1; i <= numInternalPokes; i++) {
-            Pokemon pk = new Pokemon(customConfig.getLegendaries());
+            Pokemon pk = new Pokemon(speciesFlags);
             pk.setName(pokeNames[i]);
             pk.setNumber(internalToPokedex[i]);
             pk.setSpeciesNumber(i);
@@ -344,17 +428,17 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
             typeCategoryPowerAccuracyTarget[0] = rom[moveInfoOffset + (moveInfoSize * i) + shortTypeCategoryPowerOffset];
             BitManipulationUtils.writeValue(typeCategoryPowerAccuracyTarget, 5 + 2, 9, move.getPower());
             BitManipulationUtils.writeValue(typeCategoryPowerAccuracyTarget, 0, 5, EmeraldEXConstants.typeToByte(move.getType()));
-            rom[moveInfoOffset + (moveInfoSize * i) + shortTypeCategoryPowerOffset + 1] = typeCategoryPowerAccuracyTarget[1];
-            rom[moveInfoOffset + (moveInfoSize * i) + shortTypeCategoryPowerOffset] = typeCategoryPowerAccuracyTarget[0];
+            writeByte(moveInfoOffset + (moveInfoSize * i) + shortTypeCategoryPowerOffset + 1, typeCategoryPowerAccuracyTarget[1]);
+            writeByte(moveInfoOffset + (moveInfoSize * i) + shortTypeCategoryPowerOffset, typeCategoryPowerAccuracyTarget[0]);
 
             byte[] accuracyTarget = new byte[2];
             accuracyTarget[1] = rom[moveInfoOffset + (moveInfoSize * i) + shortAccuracyTargetOffset + 1];
             accuracyTarget[0] = rom[moveInfoOffset + (moveInfoSize * i) + shortAccuracyTargetOffset];
             BitManipulationUtils.writeValue(accuracyTarget, 0, 7, (int) move.getHitratio());
-            rom[moveInfoOffset + (moveInfoSize * i) + shortAccuracyTargetOffset + 1] = accuracyTarget[1];
-            rom[moveInfoOffset + (moveInfoSize * i) + shortAccuracyTargetOffset] = accuracyTarget[0];
+            writeByte(moveInfoOffset + (moveInfoSize * i) + shortAccuracyTargetOffset + 1, accuracyTarget[1]);
+            writeByte(moveInfoOffset + (moveInfoSize * i) + shortAccuracyTargetOffset, accuracyTarget[0]);
 
-            rom[moveInfoOffset + (moveInfoSize * i) + ppOffset] = (byte) move.getPp();
+            writeByte(moveInfoOffset + (moveInfoSize * i) + ppOffset, (byte) move.getPp());
 
             byte[] hitCountAndFlags = new byte[4];
             hitCountAndFlags[3] = rom[moveInfoOffset + (moveInfoSize * i) + longHitCountAndFlagsOffset + 3];
@@ -362,10 +446,10 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
             hitCountAndFlags[1] = rom[moveInfoOffset + (moveInfoSize * i) + longHitCountAndFlagsOffset + 1];
             hitCountAndFlags[0] = rom[moveInfoOffset + (moveInfoSize * i) + longHitCountAndFlagsOffset];
             BitManipulationUtils.writeValue(hitCountAndFlags, 4 + 7, 4, (int) move.getHitCount());
-            rom[moveInfoOffset + (moveInfoSize * i) + longHitCountAndFlagsOffset + 3] = hitCountAndFlags[3];
-            rom[moveInfoOffset + (moveInfoSize * i) + longHitCountAndFlagsOffset + 2] = hitCountAndFlags[2];
-            rom[moveInfoOffset + (moveInfoSize * i) + longHitCountAndFlagsOffset + 1] = hitCountAndFlags[1];
-            rom[moveInfoOffset + (moveInfoSize * i) + longHitCountAndFlagsOffset] = hitCountAndFlags[0];
+            writeByte(moveInfoOffset + (moveInfoSize * i) + longHitCountAndFlagsOffset + 3, hitCountAndFlags[3]);
+            writeByte(moveInfoOffset + (moveInfoSize * i) + longHitCountAndFlagsOffset + 2, hitCountAndFlags[2]);
+            writeByte(moveInfoOffset + (moveInfoSize * i) + longHitCountAndFlagsOffset + 1, hitCountAndFlags[1]);
+            writeByte(moveInfoOffset + (moveInfoSize * i) + longHitCountAndFlagsOffset, hitCountAndFlags[0]);
 
         }
     }
@@ -417,28 +501,43 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
         pkmn.setDarkGrassHeldItem(-1);
 
 
-        int learnsetPtrOffset = offset + EmeraldEXConstants.learnsetPtrOffset;
-        int learnsetOffset = readPointer(learnsetPtrOffset);
-        int levelupMoveSize = 4;
+        // Species can share a learnset, so they are all read together before any of them is written
+        pkmn.setLearnsetLoader(() -> requireSubsystem(RomSubsystem.LEARNSETS));
+
+        pkmn.setGenderRatio(rom[offset + EmeraldEXConstants.bsGenderRatioOffset] & 0xFF);
+    }
+
+    private void loadLearnsets() {
+        int speciesInfoOffset = romEntry.getValue("SpeciesInfo");
+        int speciesInfoEntrySize = romEntry.getValue("SpeciesInfoEntrySize");
+        for (int speciesNum = 1; speciesNum < pokesInternal.length; speciesNum++) {
+            Pokemon pkmn = pokesInternal[speciesNum];
+            if (pkmn == null) {
+                continue;
+            }
 
-        List<MoveLearnt> movesLearnt = new ArrayList<>();
+            int offset = speciesInfoOffset + (speciesNum * speciesInfoEntrySize);
+            int learnsetPtrOffset = offset + EmeraldEXConstants.learnsetPtrOffset;
+            int learnsetOffset = readPointer(learnsetPtrOffset);
+            int levelupMoveSize = 4;
 
-        for (int i = 0; i < EmeraldEXConstants.MAX_LEVEL_UP_LEARNSET; i++) {
+            List<MoveLearnt> movesLearnt = new ArrayList<>();
 
-            int move = readWord(learnsetOffset + (i * levelupMoveSize));
-            int level = readWord(learnsetOffset + (i * levelupMoveSize) + 2);
+            for (int i = 0; i < EmeraldEXConstants.MAX_LEVEL_UP_LEARNSET; i++) {
 
-            if (move == 0xFFFF) {
-                break;
-            }
+                int move = readWord(learnsetOffset + (i * levelupMoveSize));
+                int level = readWord(learnsetOffset + (i * levelupMoveSize) + 2);
 
-            movesLearnt.add(new MoveLearnt(move, level, learnsetOffset + (i * levelupMoveSize)));
+                if (move == 0xFFFF) {
+                    break;
+                }
 
-        }
+                movesLearnt.add(new MoveLearnt(move, level, learnsetOffset + (i * levelupMoveSize)));
 
-        pkmn.setLearnset(movesLearnt);
+            }
 
-        pkmn.setGenderRatio(rom[offset + EmeraldEXConstants.bsGenderRatioOffset] & 0xFF);
+            pkmn.setLearnset(movesLearnt);
+        }
     }
 
     private void saveBasicPokeStats(Pokemon pkmn, int index) {
@@ -446,20 +545,20 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
         int speciesInfoEntrySize = romEntry.getValue("SpeciesInfoEntrySize");
         int offset = speciesInfoOffset + (index * speciesInfoEntrySize);
 
-        rom[offset + EmeraldEXConstants.bsHPOffset] = (byte) pkmn.getHp();
-        rom[offset + EmeraldEXConstants.bsAttackOffset] = (byte) pkmn.getAttack();
-        rom[offset + EmeraldEXConstants.bsDefenseOffset] = (byte) pkmn.getDefense();
-        rom[offset + EmeraldEXConstants.bsSpeedOffset] = (byte) pkmn.getSpeed();
-        rom[offset + EmeraldEXConstants.bsSpAtkOffset] = (byte) pkmn.getSpatk();
-        rom[offset + EmeraldEXConstants.bsSpDefOffset] = (byte) pkmn.getSpdef();
-        rom[offset + EmeraldEXConstants.bsPrimaryTypeOffset] = EmeraldEXConstants.typeToByte(pkmn.getPrimaryType());
+        writeByte(offset + EmeraldEXConstants.bsHPOffset, (byte) pkmn.getHp());
+        writeByte(offset + EmeraldEXConstants.bsAttackOffset, (byte) pkmn.getAttack());
+        writeByte(offset + EmeraldEXConstants.bsDefenseOffset, (byte) pkmn.getDefense());
+        writeByte(offset + EmeraldEXConstants.bsSpeedOffset, (byte) pkmn.getSpeed());
+        writeByte(offset + EmeraldEXConstants.bsSpAtkOffset, (byte) pkmn.getSpatk());
+        writeByte(offset + EmeraldEXConstants.bsSpDefOffset, (byte) pkmn.getSpdef());
+        writeByte(offset + EmeraldEXConstants.bsPrimaryTypeOffset, EmeraldEXConstants.typeToByte(pkmn.getPrimaryType()));
         if (pkmn.getSecondaryType() == null) {
-            rom[offset + EmeraldEXConstants.bsSecondaryTypeOffset] = rom[offset + EmeraldEXConstants.bsPrimaryTypeOffset];
+            writeByte(offset + EmeraldEXConstants.bsSecondaryTypeOffset, rom[offset + EmeraldEXConstants.bsPrimaryTypeOffset]);
         } else {
-            rom[offset + EmeraldEXConstants.bsSecondaryTypeOffset] = EmeraldEXConstants.typeToByte(pkmn.getSecondaryType());
+            writeByte(offset + EmeraldEXConstants.bsSecondaryTypeOffset, EmeraldEXConstants.typeToByte(pkmn.getSecondaryType()));
         }
-        rom[offset + EmeraldEXConstants.bsCatchRateOffset] = (byte) pkmn.getCatchRate();
-        rom[offset + EmeraldEXConstants.bsGrowthCurveOffset] = pkmn.getGrowthCurve().toByte();
+        writeByte(offset + EmeraldEXConstants.bsCatchRateOffset, (byte) pkmn.getCatchRate());
+        writeByte(offset + EmeraldEXConstants.bsGrowthCurveOffset, pkmn.getGrowthCurve().toByte());
 
         writeWord(offset + EmeraldEXConstants.bsAbility1Offset, pkmn.getAbility1());
         if (pkmn.getAbility2() == 0) {
@@ -484,7 +583,7 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
             writeWord(offset + EmeraldEXConstants.bsRareHeldItemOffset, pkmn.getRareHeldItem());
         }
 
-        rom[offset + EmeraldEXConstants.bsGenderRatioOffset] = (byte) pkmn.getGenderRatio();
+        writeByte(offset + EmeraldEXConstants.bsGenderRatioOffset, (byte) pkmn.getGenderRatio());
     }
 
     private void loadPokemonNames() {
@@ -502,54 +601,15 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
     }
 
     private String readString(int offset, int maxLength) {
-        StringBuilder string = new StringBuilder();
-        for (int c = 0; c < maxLength; c++) {
-            int currChar = rom[offset + c] & 0xFF;
-            if (tb[currChar] != null) {
-                string.append(tb[currChar]);
-            } else {
-                if (currChar == EmeraldEXConstants.textTerminator) {
-                    break;
-                } else if (currChar == EmeraldEXConstants.textVariable) {
-                    int nextChar = rom[offset + c + 1] & 0xFF;
-                    string.append("\\v").append(String.format("%02X", nextChar));
-                    c++;
-                } else {
-                    string.append("\\x").append(String.format("%02X", currChar));
-                }
-            }
-        }
-        return string.toString();
+        return text.decode(rom, offset, maxLength);
     }
 
-    private byte[] translateString(String text) {
-        List<Byte> data = new ArrayList<>();
-        while (!text.isEmpty()) {
-            int i = Math.max(0, 4 - text.length());
-            if (text.charAt(0) == '\\' && text.charAt(1) == 'x') {
-                data.add((byte) Integer.parseInt(text.substring(2, 4), 16));
-                text = text.substring(4);
-            } else if (text.charAt(0) == '\\' && text.charAt(1) == 'v') {
-                data.add((byte) EmeraldEXConstants.textVariable);
-                data.add((byte) Integer.parseInt(text.substring(2, 4), 16));
-                text = text.substring(4);
-            } else {
-                while (!(d.containsKey(text.substring(0, 4 - i)) || (i == 4))) {
-                    i++;
-                }
-                if (i == 4) {
-                    text = text.substring(1);
-                } else {
-                    data.add(d.get(text.substring(0, 4 - i)));
-                    text = text.substring(4 - i);
-                }
-            }
-        }
-        byte[] ret = new byte[data.size()];
-        for (int i = 0; i < ret.length; i++) {
-            ret[i] = data.get(i);
+    // Encodes into textBuffer and returns the encoded length
+    private int translateString(String str) {
+        if (textBuffer.length < str.length()) {
+            textBuffer = new byte[Math.max(str.length(), textBuffer.length * 2)];
         }
-        return ret;
+        return text.encode(str, textBuffer);
     }
 
     private String readFixedLengthString(int offset, int length) {
@@ -561,23 +621,22 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
     }
 
     private void writeFixedLengthString(String str, int offset, int length) {
-        byte[] translated = translateString(str);
-        int len = Math.min(translated.length, length);
-        System.arraycopy(translated, 0, rom, offset, len);
+        int len = Math.min(translateString(str), length);
+        writeBytes(offset, textBuffer, 0, len);
         if (len < length) {
-            rom[offset + len] = (byte) EmeraldEXConstants.textTerminator;
+            writeByte(offset + len, (byte) EmeraldEXConstants.textTerminator);
             len++;
         }
         while (len < length) {
-            rom[offset + len] = 0;
+            writeByte(offset + len, 0);
             len++;
         }
     }
 
     private void writeVariableLengthString(String str, int offset) {
-        byte[] translated = translateString(str);
-        System.arraycopy(translated, 0, rom, offset, translated.length);
-        rom[offset + translated.length] = (byte) 0xFF;
+        int len = translateString(str);
+        writeBytes(offset, textBuffer, 0, len);
+        writeByte(offset + len, (byte) 0xFF);
     }
 
     private int readPointer(int offset) {
@@ -594,10 +653,10 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
     }
 
     private void writeLong(int offset, int value) {
-        rom[offset] = (byte) (value & 0xFF);
-        rom[offset + 1] = (byte) ((value >> 8) & 0xFF);
-        rom[offset + 2] = (byte) ((value >> 16) & 0xFF);
-        rom[offset + 3] = (byte) (((value >> 24) & 0xFF));
+        writeByte(offset, (byte) (value & 0xFF));
+        writeByte(offset + 1, (byte) ((value >> 8) & 0xFF));
+        writeByte(offset + 2, (byte) ((value >> 16) & 0xFF));
+        writeByte(offset + 3, (byte) (((value >> 24) & 0xFF)));
     }
 
     @Override
@@ -661,14 +720,28 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
 
     @Override
     public List<EncounterSet> getEncounters(boolean useTimeOfDay, boolean condenseSlots) {
-        if (!mapLoadingDone) {
-            preprocessMaps();
-            mapLoadingDone = true;
+        // condenseSlots doesn't change how the areas are read, so only the time of day setting needs its own view
+        return getWildAreas(useTimeOfDay).encounterSets;
+    }
+
+    private WildAreas getWildAreas(boolean useTimeOfDay) {
+        WildAreas areas = useTimeOfDay ? wildAreasByTime : wildAreasDayOnly;
+        if (areas == null) {
+            areas = loadWildAreas(useTimeOfDay);
+            if (useTimeOfDay) {
+                wildAreasByTime = areas;
+            } else {
+                wildAreasDayOnly = areas;
+            }
         }
+        return areas;
+    }
 
+    private WildAreas loadWildAreas(boolean useTimeOfDay) {
         int startOffs = romEntry.getValue("WildPokemon");
-        List<EncounterSet> encounterAreas = new ArrayList<>();
-        Set<Integer> seenOffsets = new TreeSet<>();
+        WildAreas wildAreas = new WildAreas();
+        List<EncounterSet> encounterAreas = wildAreas.encounterSets;
+        Set<Integer> seenOffsets = new HashSet<>();
         int offs = startOffs;
         while (true) {
             // Read pointers
@@ -678,7 +751,11 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
                 break;
             }
 
-            String mapName = mapNames[bank][map];
+            // The map names are only needed for the log, so they stay unread until then
+            Supplier<String> mapName = () -> {
+                requireSubsystem(RomSubsystem.MAPS);
+                return mapNames[bank][map];
+            };
 
             for (EncounterSlot type : EncounterSlot.values()) {
                 int typePtr = readPointer(offs + 4 + type.getIndex() * 4);
@@ -686,30 +763,28 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
                     int rate = rom[typePtr] & 0xFF;
                     if (useTimeOfDay) {
                         for (TimesOfDay time : TimesOfDay.values()) {
-                            String areaName = String.format("%s %s (%s)", mapName, type.getName(), time.getName());
                             int dataOffset = readPointer(typePtr + 4 + time.getIndex() * 4);
-                            if (!seenOffsets.contains(dataOffset)) {
-                                if (type.getIndex() == 3) {
-                                    encounterAreas
-                                            .add(readWildAreaFishing(dataOffset, rate, type.getSlotEncounters(), areaName));
-                                } else {
-                                    encounterAreas.add(readWildArea(dataOffset, rate, type.getSlotEncounters(), areaName));
-                                }
-                                seenOffsets.add(dataOffset);
+                            if (seenOffsets.add(dataOffset)) {
+                                EncounterSet area = readWildArea(dataOffset, rate, type.getSlotEncounters());
+                                area.setDisplayName(() -> mapName.get() + " " + type.getName() + " (" + time.getName() + ")");
+                                encounterAreas.add(area);
+                                // The encounter rate is written from the first data set for each area/type combo
+                                wildAreas.locations.add(new WildAreaLocation(time.getIndex() == 0 ? typePtr : -1,
+                                        new int[] {dataOffset}, type));
                             }
                         }
                     } else {
-                        // Use Day only
-                        String areaName = String.format("%s %s", mapName, type.getName());
-                        int dataOffset = readPointer(typePtr + 8);
-                        if (!seenOffsets.contains(dataOffset)) {
-                            if (type.getIndex() == 3) {
-                                encounterAreas
-                                        .add(readWildAreaFishing(dataOffset, rate, type.getSlotEncounters(), areaName));
-                            } else {
-                                encounterAreas.add(readWildArea(dataOffset, rate, type.getSlotEncounters(), areaName));
+                        // Use Day only, which is written over all times
+                        int dayDataOffset = readPointer(typePtr + 8);
+                        if (seenOffsets.add(dayDataOffset)) {
+                            EncounterSet area = readWildArea(dayDataOffset, rate, type.getSlotEncounters());
+                            area.setDisplayName(() -> mapName.get() + " " + type.getName());
+                            encounterAreas.add(area);
+                            int[] dataOffsets = new int[TimesOfDay.values().length];
+                            for (TimesOfDay time : TimesOfDay.values()) {
+                                dataOffsets[time.getIndex()] = readPointer(typePtr + 4 + time.getIndex() * 4);
                             }
-                            seenOffsets.add(dataOffset);
+                            wildAreas.locations.add(new WildAreaLocation(typePtr, dataOffsets, type));
                         }
                     }
                 }
@@ -731,7 +806,7 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
                 encounterAreas.get(areaIdx).getBannedPokemon().addAll(battleTrappers);
             }
         }
-        return encounterAreas;
+        return wildAreas;
     }
 
     private boolean hasBattleTrappingAbility(Pokemon pokemon) {
@@ -739,28 +814,9 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
                 || battleTrappingAbilities().contains(pokemon.getAbility2()));
     }
 
-    private EncounterSet readWildArea(int dataOffset, int rate, int numOfEntries, String setName) {
-        EncounterSet thisSet = new EncounterSet();
-        thisSet.setRate(rate);
-        thisSet.setDisplayName(setName);
-        // Read the entries
-        for (int i = 0; i < numOfEntries; i++) {
-            // min, max, species, species
-            Encounter enc = new Encounter();
-            enc.setLevel(rom[dataOffset + i * 4]);
-            enc.setMaxLevel(rom[dataOffset + i * 4 + 1]);
-            enc.setPokemon(pokesInternal[readWord(dataOffset + i * 4 + 2)]);
-            thisSet.getEncounters().add(enc);
-        }
-        return thisSet;
-    }
-
-    private EncounterSet readWildAreaFishing(int dataOffset, int rate, int numOfEntries, String setName) {
+    private EncounterSet readWildArea(int dataOffset, int rate, int numOfEntries) {
         EncounterSet thisSet = new EncounterSet();
         thisSet.setRate(rate);
-        thisSet.setDisplayName(setName);
-        // Grab the *real* pointer to data
-
         // Read the entries
         for (int i = 0; i < numOfEntries; i++) {
             // min, max, species, species
@@ -775,90 +831,72 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
 
     @Override
     public void setEncounters(boolean useTimeOfDay, boolean condenseSlots, List<EncounterSet> encounters) {
-
-        int startOffs = romEntry.getValue("WildPokemon");
+        WildAreas wildAreas = getWildAreas(useTimeOfDay);
         Iterator<EncounterSet> encounterAreas = encounters.iterator();
-        Set<Integer> seenOffsets = new TreeSet<>();
-        int offs = startOffs;
-        while (true) {
-            // Read pointers
-            int bank = rom[offs] & 0xFF;
-            int map = rom[offs + 1] & 0xFF;
-            if (bank == 0xFF && map == 0xFF) {
-                break;
-            }
-
-            for (EncounterSlot type : EncounterSlot.values()) {
-                int typePtr = readPointer(offs + 4 + type.getIndex() * 4);
-                if (typePtr >= 0 && typePtr < rom.length && rom[typePtr] != 0) {
-                    if (useTimeOfDay) {
-                        for (TimesOfDay time : TimesOfDay.values()) {
-                            int dataOffset = readPointer(typePtr + 4 + time.getIndex() * 4);
-                            if (!seenOffsets.contains(dataOffset)) {
-                                EncounterSet area = encounterAreas.next();
-                                if (time.getIndex() == 0) {
-                                    // write encounter rate from first data set
-                                    // for each area/type combo
-                                    rom[typePtr] = (byte) area.getRate();
-                                }
-                                if (type.getIndex() == 3) {
-                                    writeWildAreaFishing(dataOffset, area);
-                                } else {
-                                    writeWildArea(dataOffset, type.getSlotEncounters(), area, type.getIndex() == 0);
-                                }
-                                seenOffsets.add(dataOffset);
-                            }
-                        }
-                    } else {
-                        // Use Day only and write it over all times
-                        int dayDataOffset = readPointer(typePtr + 8);
-                        if (!seenOffsets.contains(dayDataOffset)) {
-                            EncounterSet area = encounterAreas.next();
-                            rom[typePtr] = (byte) area.getRate();
-                            for (TimesOfDay time : TimesOfDay.values()) {
-                                int dataOffset = readPointer(typePtr + 4 + time.getIndex() * 4);
-                                if (type.getIndex() == 3) {
-                                    writeWildAreaFishing(dataOffset, area);
-                                } else {
-                                    writeWildArea(dataOffset, type.getSlotEncounters(), area, type.getIndex() == 0);
-                                }
-                            }
-                            seenOffsets.add(dayDataOffset);
-                        }
-                    }
-                }
-            }
+        for (WildAreaLocation location : wildAreas.locations) {
+            writeWildArea(location, encounterAreas.next());
+        }
+        wildAreas.encounterSets = encounters;
 
-            offs += (4 + (EncounterSlot.values().length * 4));
+        // Both views share data in the rom, so the other one has to be read again
+        if (useTimeOfDay) {
+            wildAreasDayOnly = null;
+        } else {
+            wildAreasByTime = null;
         }
     }
 
-    private void writeWildArea(int dataOffset, int numOfEntries, EncounterSet encounters, boolean duplicateSlots) {
-        // Write the entries
+    // Only writes what changed since the last write, everything is written the first time
+    private void writeWildArea(WildAreaLocation location, EncounterSet area) {
+        if (location.ratePtr >= 0 && location.writtenRate != area.getRate()) {
+            writeByte(location.ratePtr, (byte) area.getRate());
+            location.writtenRate = area.getRate();
+        }
+        int numOfEntries = location.writtenSpecies.length;
         for (int i = 0; i < numOfEntries; i++) {
-            Encounter enc = encounters.getEncounters().get(i);
             // min, max, species, species
-            int speciesNumber = enc.getPokemon().getSpeciesNumber();
-            writeWord(dataOffset + i * 4 + 2, speciesNumber);
-            if (duplicateSlots) {
-                writeWord(dataOffset + (i + numOfEntries) * 4 + 2, speciesNumber);
+            int speciesNumber = area.getEncounters().get(i).getPokemon().getSpeciesNumber();
+            if (speciesNumber == location.writtenSpecies[i]) {
+                continue;
             }
+            for (int dataOffset : location.dataOffsets) {
+                writeWord(dataOffset + i * 4 + 2, speciesNumber);
+                if (location.type == EncounterSlot.FISHING) {
+                    // Speedchoice duplication.. 4 extra times
+                    writeWord(dataOffset + (i + numOfEntries) * 4 + 2, speciesNumber);
+                    writeWord(dataOffset + (i + numOfEntries * 2) * 4 + 2, speciesNumber);
+                    writeWord(dataOffset + (i + numOfEntries * 3) * 4 + 2, speciesNumber);
+                    writeWord(dataOffset + (i + numOfEntries * 4) * 4 + 2, speciesNumber);
+                } else if (location.type == EncounterSlot.CAVE_OR_GRASS) {
+                    writeWord(dataOffset + (i + numOfEntries) * 4 + 2, speciesNumber);
+                }
+            }
+            location.writtenSpecies[i] = speciesNumber;
         }
     }
 
-    private void writeWildAreaFishing(int dataOffset, EncounterSet encounters) {
-        int numOfEntries = 2;
-        // Write the entries
-        for (int i = 0; i < numOfEntries; i++) {
-            Encounter enc = encounters.getEncounters().get(i);
-            // min, max, species, species
-            int speciesNumber = enc.getPokemon().getSpeciesNumber();
-            writeWord(dataOffset + i * 4 + 2, speciesNumber);
-            // Speedchoice duplication.. 4 extra times
-            writeWord(dataOffset + (i + numOfEntries) * 4 + 2, speciesNumber);
-            writeWord(dataOffset + (i + numOfEntries * 2) * 4 + 2, speciesNumber);
-            writeWord(dataOffset + (i + numOfEntries * 3) * 4 + 2, speciesNumber);
-            writeWord(dataOffset + (i + numOfEntries * 4) * 4 + 2, speciesNumber);
+    // The encounter sets for one time of day setting, with where each one is written
+    private static class WildAreas {
+        private List<EncounterSet> encounterSets = new ArrayList<>();
+        private final List<WildAreaLocation> locations = new ArrayList<>();
+    }
+
+    private static class WildAreaLocation {
+        // -1 if this area doesn't write the rate
+        private final int ratePtr;
+        // Every copy of the area's data, as day only areas are written over all times
+        private final int[] dataOffsets;
+        private final EncounterSlot type;
+        private int writtenRate = -1;
+        // -1 until the slot is written
+        private final int[] writtenSpecies;
+
+        private WildAreaLocation(int ratePtr, int[] dataOffsets, EncounterSlot type) {
+            this.ratePtr = ratePtr;
+            this.dataOffsets = dataOffsets;
+            this.type = type;
+            writtenSpecies = new int[type.getSlotEncounters()];
+            Arrays.fill(writtenSpecies, -1);
         }
     }
 
@@ -869,55 +907,47 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
 
     @Override
     public List<Trainer> getTrainers() {
+        // Parsed once, then changes are kept here until savingRom writes them out
+        if (trainers == null) {
+            trainers = loadTrainers();
+        }
+        return trainers;
+    }
+
+    private List<Trainer> loadTrainers() {
         int baseOffset = romEntry.getValue("TrainerData");
         int amount = romEntry.getValue("TrainerCount");
         int entryLen = romEntry.getValue("TrainerEntrySize");
         List<Trainer> theTrainers = new ArrayList<>();
         List<String> tcnames = this.getTrainerClassNames();
 
-        // Trainer Offsets
-        int trainerClassOffset = 0x10;
-        int trainerMusicAndGenderOffset = 0x11;
-        int trainerPartySizeOffset = 0x20;
-        int trainerPartyPtrOffset = 0x04;
-        int trainerNameOffset = 0x13;
-        // Only first bit is used for double battle, the other 7 are used for mugshot and starting status
-        int trainerDoubleBattleOffset = 0x1E;
-
-        // Trainer Mon Offsets
-        int trainerMonSize = 0x20;
-        int trainerMonIvOffset = 0x08;
-        int trainerMonLevelOffset = 0x1A;
-        int trainerMonSpeciesOffset = 0x14;
-        int trainerMonHeldItemOffset = 0x16;
-        int trainerMonMove1Offset = 0x0C;
-
         for (int i = 1; i < amount; i++) {
             int trOffset = baseOffset + i * entryLen;
             Trainer tr = new Trainer();
             tr.setOffset(trOffset);
-            int trainerclass = rom[trOffset + trainerClassOffset] & 0xFF;
+            int trainerclass = rom[trOffset + EmeraldEXConstants.trainerClassOffset] & 0xFF;
 
             // The last bit of music is used for trainer gender
-            tr.setTrainerclass((rom[trOffset + trainerMusicAndGenderOffset] & 0x80) > 0 ? 1 : 0);
+            tr.setTrainerclass((rom[trOffset + EmeraldEXConstants.trainerMusicAndGenderOffset] & 0x80) > 0 ? 1 : 0);
 
-            int numPokes = rom[trOffset + trainerPartySizeOffset] & 0xFF;
-            int pointerToPokes = readPointer(trOffset + trainerPartyPtrOffset);
-            tr.setName(this.readVariableLengthString(trOffset + trainerNameOffset));
+            int numPokes = rom[trOffset + EmeraldEXConstants.trainerPartySizeOffset] & 0xFF;
+            int pointerToPokes = readPointer(trOffset + EmeraldEXConstants.trainerPartyPtrOffset);
+            tr.setName(this.readVariableLengthString(trOffset + EmeraldEXConstants.trainerNameOffset));
             tr.setFullDisplayName(tcnames.get(trainerclass) + " " + tr.getName());
-            tr.setDoubleBattle((rom[trainerDoubleBattleOffset + 0x1E] & (1L << 1)) != 0);
+            tr.setDoubleBattle((rom[EmeraldEXConstants.trainerDoubleBattleOffset + 0x1E] & (1L << 1)) != 0);
 
             // Pokemon data!
             for (int poke = 0; poke < numPokes; poke++) {
+                int monOffset = pointerToPokes + poke * EmeraldEXConstants.trainerMonSize;
                 TrainerPokemon thisPoke = new TrainerPokemon();
-                thisPoke.setAILevel(readWord(pointerToPokes + poke * trainerMonSize + trainerMonIvOffset));
-                thisPoke.setLevel(readWord(pointerToPokes + poke * trainerMonSize + trainerMonLevelOffset));
-                thisPoke.setPokemon(pokesInternal[readWord(pointerToPokes + poke * trainerMonSize + trainerMonSpeciesOffset)]);
-                thisPoke.setHeldItem(readWord(pointerToPokes + poke * trainerMonSize + trainerMonHeldItemOffset));
-                thisPoke.setMove1(readWord(pointerToPokes + poke * trainerMonSize + trainerMonMove1Offset));
-                thisPoke.setMove2(readWord(pointerToPokes + poke * trainerMonSize + trainerMonMove1Offset + 2));
-                thisPoke.setMove3(readWord(pointerToPokes + poke * trainerMonSize + trainerMonMove1Offset + 4));
-                thisPoke.setMove4(readWord(pointerToPokes + poke * trainerMonSize + trainerMonMove1Offset + 6));
+                thisPoke.setAILevel(readWord(monOffset + EmeraldEXConstants.trainerMonIvOffset));
+                thisPoke.setLevel(readWord(monOffset + EmeraldEXConstants.trainerMonLevelOffset));
+                thisPoke.setPokemon(pokesInternal[readWord(monOffset + EmeraldEXConstants.trainerMonSpeciesOffset)]);
+                thisPoke.setHeldItem(readWord(monOffset + EmeraldEXConstants.trainerMonHeldItemOffset));
+                thisPoke.setMove1(readWord(monOffset + EmeraldEXConstants.trainerMonMove1Offset));
+                thisPoke.setMove2(readWord(monOffset + EmeraldEXConstants.trainerMonMove1Offset + 2));
+                thisPoke.setMove3(readWord(monOffset + EmeraldEXConstants.trainerMonMove1Offset + 4));
+                thisPoke.setMove4(readWord(monOffset + EmeraldEXConstants.trainerMonMove1Offset + 6));
                 tr.getPokemon().add(thisPoke);
             }
             theTrainers.add(tr);
@@ -928,85 +958,119 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
 
     @Override
     public void setTrainers(List<Trainer> trainerData) {
+        // Moves are worked out now, against the learnsets as they are at this point
+        for (Trainer tr : trainerData) {
+            for (TrainerPokemon tp : tr.getPokemon()) {
+                if (tp.getPokemon() == null) {
+                    continue;
+                }
+                if (tp.isResetMoves()) {
+                    int[] pokeMoves = RomFunctions.getMovesAtLevel(tp.getPokemon(), tp.getLevel());
+                    tp.setMove1(pokeMoves[0]);
+                    tp.setMove2(pokeMoves[1]);
+                    tp.setMove3(pokeMoves[2]);
+                    tp.setMove4(pokeMoves[3]);
+                    tp.setResetMoves(false);
+                }
+                // The level is written over the AI level too
+                tp.setAILevel(tp.getLevel());
+            }
+        }
+        checkTrainerPartiesFit(trainerData);
+        trainers = trainerData;
+        trainersChanged = true;
+    }
+
+    // Fails now, before anything is written, if saveTrainers wouldn't be able to repoint every party that grows
+    private void checkTrainerPartiesFit(List<Trainer> trainerData) {
         int baseOffset = romEntry.getValue("TrainerData");
         int amount = romEntry.getValue("TrainerCount");
         int entryLen = romEntry.getValue("TrainerEntrySize");
-        Iterator<Trainer> theTrainers = trainerData.iterator();
 
-        // TODO: Need to look into this because I want to avoid writing any extra data to the rom
-        int fso = romEntry.getValue("FreeSpace");
-
-        // Trainer Offsets
-        int trainerPartySizeOffset = 0x20;
-        int trainerPartyPtrOffset = 0x04;
+        List<Integer> grownParties = new ArrayList<>();
+        Iterator<Trainer> theTrainers = trainerData.iterator();
+        for (int i = 1; i < amount; i++) {
+            int oldPokeCount = rom[baseOffset + i * entryLen + EmeraldEXConstants.trainerPartySizeOffset] & 0xFF;
+            int newPokeCount = theTrainers.next().getPokemon().size();
+            if (newPokeCount > oldPokeCount) {
+                grownParties.add(newPokeCount * EmeraldEXConstants.trainerMonSize);
+            }
+        }
+        if (!getFreeSpace().canAllocate(grownParties)) {
+            throw new RandomizerIOException("ROM is full: " + grownParties.size()
+                    + " trainer parties need repointing but don't fit in the " + getFreeSpace().getFreeByteCount()
+                    + " bytes of free space");
+        }
+    }
 
-        // Trainer Mon Offsets
-        int trainerMonSize = 0x20;
-        int trainerMonIvOffset = 0x08;
-        int trainerMonLevelOffset = 0x1A;
-        int trainerMonSpeciesOffset = 0x14;
-        int trainerMonHeldItemOffset = 0x16;
-        int trainerMonMove1Offset = 0x0C;
+    private void saveTrainers() {
+        int baseOffset = romEntry.getValue("TrainerData");
+        int amount = romEntry.getValue("TrainerCount");
+        int entryLen = romEntry.getValue("TrainerEntrySize");
+        Iterator<Trainer> theTrainers = trainers.iterator();
 
         for (int i = 1; i < amount; i++) {
             int trOffset = baseOffset + i * entryLen;
             Trainer tr = theTrainers.next();
             // Do we need to repoint this trainer's data?
-            int oldPokeCount = rom[trOffset + trainerPartySizeOffset] & 0xFF;
+            int oldPokeCount = rom[trOffset + EmeraldEXConstants.trainerPartySizeOffset] & 0xFF;
             int newPokeCount = tr.getPokemon().size();
 
-            int newDataSize = newPokeCount * trainerMonSize;
-            int oldDataSize = oldPokeCount * trainerMonSize;
+            int newDataSize = newPokeCount * EmeraldEXConstants.trainerMonSize;
+            int oldDataSize = oldPokeCount * EmeraldEXConstants.trainerMonSize;
 
             // write out new data first...
-            rom[trOffset + trainerPartySizeOffset] = (byte) newPokeCount;
+            writeByte(trOffset + EmeraldEXConstants.trainerPartySizeOffset, (byte) newPokeCount);
 
             // now, do we need to repoint?
             int pointerToPokes;
             if (newDataSize > oldDataSize) {
-                int writeSpace = RomFunctions.freeSpaceFinder(rom, EmeraldEXConstants.freeSpaceByte, newDataSize, fso,
-                        true);
-                if (writeSpace < fso) {
-                    throw new RandomizerIOException("ROM is full");
-                }
-                writePointer(trOffset + trainerPartyPtrOffset, writeSpace);
+                int writeSpace = getFreeSpace().allocate(newDataSize);
+                writePointer(trOffset + EmeraldEXConstants.trainerPartyPtrOffset, writeSpace);
                 pointerToPokes = writeSpace;
             } else {
-                pointerToPokes = readPointer(trOffset + trainerPartyPtrOffset);
+                pointerToPokes = readPointer(trOffset + EmeraldEXConstants.trainerPartyPtrOffset);
             }
 
             Iterator<TrainerPokemon> pokes = tr.getPokemon().iterator();
 
             // Write out Pokemon data!
             for (int poke = 0; poke < newPokeCount; poke++) {
+                int monOffset = pointerToPokes + poke * EmeraldEXConstants.trainerMonSize;
                 TrainerPokemon tp = pokes.next();
 
                 if (tp.getPokemon() == null) {
                     continue;
                 }
 
-                writeWord(pointerToPokes + (poke * trainerMonSize) + trainerMonIvOffset, tp.getLevel());
-                writeWord(pointerToPokes + (poke * trainerMonSize) + trainerMonLevelOffset, tp.getLevel());
-                writeWord(pointerToPokes + (poke * trainerMonSize) + trainerMonSpeciesOffset, tp.getPokemon().getSpeciesNumber());
-                writeWord(pointerToPokes + (poke * trainerMonSize) + trainerMonHeldItemOffset, tp.getHeldItem());
+                writeWord(monOffset + EmeraldEXConstants.trainerMonIvOffset, tp.getLevel());
+                writeWord(monOffset + EmeraldEXConstants.trainerMonLevelOffset, tp.getLevel());
+                writeWord(monOffset + EmeraldEXConstants.trainerMonSpeciesOffset, tp.getPokemon().getSpeciesNumber());
+                writeWord(monOffset + EmeraldEXConstants.trainerMonHeldItemOffset, tp.getHeldItem());
 
-                if (tp.isResetMoves()) {
-                    int[] pokeMoves = RomFunctions.getMovesAtLevel(tp.getPokemon(), tp.getLevel());
-                    for (int m = 0; m < 4; m++) {
-                        writeWord(pointerToPokes + (poke * trainerMonSize) + trainerMonMove1Offset + m * 2, pokeMoves[m]);
-                    }
-                } else {
-                    writeWord(pointerToPokes + (poke * trainerMonSize) + trainerMonMove1Offset, tp.getMove1());
-                    writeWord(pointerToPokes + (poke * trainerMonSize) + trainerMonMove1Offset + 2, tp.getMove2());
-                    writeWord(pointerToPokes + (poke * trainerMonSize) + trainerMonMove1Offset + 4, tp.getMove3());
-                    writeWord(pointerToPokes + (poke * trainerMonSize) + trainerMonMove1Offset + 6, tp.getMove4());
-                }
+                writeWord(monOffset + EmeraldEXConstants.trainerMonMove1Offset, tp.getMove1());
+                writeWord(monOffset + EmeraldEXConstants.trainerMonMove1Offset + 2, tp.getMove2());
+                writeWord(monOffset + EmeraldEXConstants.trainerMonMove1Offset + 4, tp.getMove3());
+                writeWord(monOffset + EmeraldEXConstants.trainerMonMove1Offset + 6, tp.getMove4());
             }
 
         }
 
     }
 
+    @Override
+    public int getFreeSpaceByteCount() {
+        return getFreeSpace().getFreeByteCount();
+    }
+
+    // Found on first use, as most randomizations never repoint anything
+    private FreeSpaceAllocator getFreeSpace() {
+        if (freeSpace == null) {
+            freeSpace = new FreeSpaceAllocator(rom, EmeraldEXConstants.freeSpaceByte, romEntry.getValue("FreeSpace"));
+        }
+        return freeSpace;
+    }
+
     @Override
     public void writeTrainerLevelModifier(int trainersLevelModifier) {
         int levelModifierOffset = (romEntry.getValue("StaticVars") + (EmeraldEXConstants.TRAINER_LEVEL_BOOST_PERCENT_INDEX * 2));
@@ -1085,75 +1149,76 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
         int baseOffset = romEntry.getValue("FrontierPokemon");
         int numPokes = romEntry.getValue("FrontierPokemonCount");
 
-        int trainerMonSize = 0x20;
-        int trainerMonIvOffset = 0x08;
-        int trainerMonLevelOffset = 0x1A;
-        int trainerMonSpeciesOffset = 0x14;
-        int trainerMonHeldItemOffset = 0x16;
-        int trainerMonMove1Offset = 0x0C;
-
         List<TrainerPokemon> frontierMons = new ArrayList<>();
 
         for (int poke = 0; poke < numPokes; poke++) {
+            int monOffset = baseOffset + poke * EmeraldEXConstants.trainerMonSize;
             TrainerPokemon thisPoke = new TrainerPokemon();
-            thisPoke.setAILevel(readWord(baseOffset + poke * trainerMonSize + trainerMonIvOffset));
-            thisPoke.setLevel(readWord(baseOffset + poke * trainerMonSize + trainerMonLevelOffset));
-            thisPoke.setPokemon(pokesInternal[readWord(baseOffset + poke * trainerMonSize + trainerMonSpeciesOffset)]);
-            thisPoke.setHeldItem(readWord(baseOffset + poke * trainerMonSize + trainerMonHeldItemOffset));
-            thisPoke.setMove1(readWord(baseOffset + poke * trainerMonSize + trainerMonMove1Offset));
-            thisPoke.setMove2(readWord(baseOffset + poke * trainerMonSize + trainerMonMove1Offset + 2));
-            thisPoke.setMove3(readWord(baseOffset + poke * trainerMonSize + trainerMonMove1Offset + 4));
-            thisPoke.setMove4(readWord(baseOffset + poke * trainerMonSize + trainerMonMove1Offset + 6));
+            thisPoke.setAILevel(readWord(monOffset + EmeraldEXConstants.trainerMonIvOffset));
+            thisPoke.setLevel(readWord(monOffset + EmeraldEXConstants.trainerMonLevelOffset));
+            thisPoke.setPokemon(pokesInternal[readWord(monOffset + EmeraldEXConstants.trainerMonSpeciesOffset)]);
+            thisPoke.setHeldItem(readWord(monOffset + EmeraldEXConstants.trainerMonHeldItemOffset));
+            thisPoke.setMove1(readWord(monOffset + EmeraldEXConstants.trainerMonMove1Offset));
+            thisPoke.setMove2(readWord(monOffset + EmeraldEXConstants.trainerMonMove1Offset + 2));
+            thisPoke.setMove3(readWord(monOffset + EmeraldEXConstants.trainerMonMove1Offset + 4));
+            thisPoke.setMove4(readWord(monOffset + EmeraldEXConstants.trainerMonMove1Offset + 6));
             frontierMons.add(thisPoke);
         }
 
+        // The same for every mon, so built once. A pool skips the moves a mon already has, which picks the same move
+        // for each random number as removing them from a list would
+        List<Integer> battleItems = EmeraldEXConstants.getBattleItems();
+        MovePool usableMoves = null;
+        MovePool usableDamagingMoves = null;
+        BitSet picked = new BitSet();
+        if (randomMoves) {
+            List<Move> allMoves = this.getMoves();
+            allMoves = allMoves.subList(1, allMoves.size()); // skip null entry
+            Set<Integer> bannedMoves = new HashSet<>(getBannedRandomMoves());
+            Set<Integer> bannedForDamaging = new HashSet<>(getBannedForDamagingMoves());
+
+            List<Move> usable = new ArrayList<>();
+            List<Move> usableDamaging = new ArrayList<>();
+            for (Move mv : allMoves) {
+                int moveNumber = mv.getNumber();
+                if (!bannedMoves.contains(moveNumber)) {
+                    usable.add(mv);
+                    if (!bannedForDamaging.contains(moveNumber)
+                            && mv.getPower() >= GlobalConstants.MIN_DAMAGING_MOVE_POWER) {
+                        usableDamaging.add(mv);
+                    }
+                }
+            }
+            int maxMoveNumber = usable.stream().mapToInt(Move::getNumber).max().orElse(0);
+            usableMoves = new MovePool(usable, maxMoveNumber);
+            usableDamagingMoves = new MovePool(usableDamaging, maxMoveNumber);
+        }
+
         for (TrainerPokemon tp : frontierMons) {
             tp.setPokemon(pickReplacement(tp.getPokemon(), false, null, false, true));
 
-
-            List<Integer> battleItems = EmeraldEXConstants.getBattleItems();
             tp.setHeldItem(battleItems.get(random.nextInt(battleItems.size())));
 
             if (randomMoves) {
 
                 // Set moves
-                List<Move> usableMoves = new ArrayList<>(this.getMoves());
-                usableMoves.remove(0); // remove null entry
-                Set<Move> unusableMoves = new HashSet<>();
-                Set<Move> unusableDamagingMoves = new HashSet<>();
-
-                for (Move mv : usableMoves) {
-                    int moveNumber = mv.getNumber();
-                    if (getBannedRandomMoves().contains(moveNumber)) {
-                        unusableMoves.add(mv);
-                    } else if (getBannedForDamagingMoves().contains(moveNumber)
-                            || mv.getPower() < GlobalConstants.MIN_DAMAGING_MOVE_POWER) {
-                        unusableDamagingMoves.add(mv);
-                    }
-                }
+                picked.clear();
 
-                usableMoves.removeAll(unusableMoves);
-                List<Move> usableDamagingMoves = new ArrayList<>(usableMoves);
-                usableDamagingMoves.removeAll(unusableDamagingMoves);
+                int move1Damaging = usableDamagingMoves.pick(random, picked);
+                picked.set(move1Damaging);
 
-                Move move1Damaging = usableDamagingMoves.get(random.nextInt(usableDamagingMoves.size()));
-                usableMoves.remove(move1Damaging);
-                usableDamagingMoves.remove(move1Damaging);
+                int move2Damaging = usableDamagingMoves.pick(random, picked);
+                picked.set(move2Damaging);
 
-                Move move2Damaging = usableDamagingMoves.get(random.nextInt(usableDamagingMoves.size()));;
-                usableMoves.remove(move2Damaging);
-                usableDamagingMoves.remove(move2Damaging);
+                int move3 = usableMoves.pick(random, picked);
+                picked.set(move3);
 
-                Move move3 = usableMoves.get(random.nextInt(usableMoves.size()));;
-                usableMoves.remove(move3);
+                int move4 = usableMoves.pick(random, picked);
 
-                Move move4 = usableMoves.get(random.nextInt(usableMoves.size()));;
-                usableMoves.remove(move4);
-
-                tp.setMove1(move1Damaging.getNumber());
-                tp.setMove2(move2Damaging.getNumber());
-                tp.setMove3(move3.getNumber());
-                tp.setMove4(move4.getNumber());
+                tp.setMove1(move1Damaging);
+                tp.setMove2(move2Damaging);
+                tp.setMove3(move3);
+                tp.setMove4(move4);
 
                 tp.setResetMoves(false);
 
@@ -1168,32 +1233,33 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
 
         // Write out Pokemon data!
         for (int poke = 0; poke < numPokes; poke++) {
+            int monOffset = baseOffset + poke * EmeraldEXConstants.trainerMonSize;
             TrainerPokemon tp = pokes.next();
 
             if (tp.getPokemon() == null) {
                 continue;
             }
 
-            writeWord(baseOffset + (poke * trainerMonSize) + trainerMonIvOffset, tp.getLevel());
-            writeWord(baseOffset + (poke * trainerMonSize) + trainerMonLevelOffset, tp.getLevel());
-            writeWord(baseOffset + (poke * trainerMonSize) + trainerMonSpeciesOffset, tp.getPokemon().getSpeciesNumber());
-            writeWord(baseOffset + (poke * trainerMonSize) + trainerMonHeldItemOffset, tp.getHeldItem());
+            writeWord(monOffset + EmeraldEXConstants.trainerMonIvOffset, tp.getLevel());
+            writeWord(monOffset + EmeraldEXConstants.trainerMonLevelOffset, tp.getLevel());
+            writeWord(monOffset + EmeraldEXConstants.trainerMonSpeciesOffset, tp.getPokemon().getSpeciesNumber());
+            writeWord(monOffset + EmeraldEXConstants.trainerMonHeldItemOffset, tp.getHeldItem());
 
-            writeWord(baseOffset + (poke * trainerMonSize) + trainerMonMove1Offset, tp.getMove1());
-            writeWord(baseOffset + (poke * trainerMonSize) + trainerMonMove1Offset + 2, tp.getMove2());
-            writeWord(baseOffset + (poke * trainerMonSize) + trainerMonMove1Offset + 4, tp.getMove3());
-            writeWord(baseOffset + (poke * trainerMonSize) + trainerMonMove1Offset + 6, tp.getMove4());
+            writeWord(monOffset + EmeraldEXConstants.trainerMonMove1Offset, tp.getMove1());
+            writeWord(monOffset + EmeraldEXConstants.trainerMonMove1Offset + 2, tp.getMove2());
+            writeWord(monOffset + EmeraldEXConstants.trainerMonMove1Offset + 4, tp.getMove3());
+            writeWord(monOffset + EmeraldEXConstants.trainerMonMove1Offset + 6, tp.getMove4());
 
             if (tp.isResetMoves()) {
                 int[] pokeMoves = RomFunctions.getMovesAtLevel(tp.getPokemon(), 100);
                 for (int m = 0; m < 4; m++) {
-                    writeWord(baseOffset + (poke * trainerMonSize) + trainerMonMove1Offset + m * 2, pokeMoves[m]);
+                    writeWord(monOffset + EmeraldEXConstants.trainerMonMove1Offset + m * 2, pokeMoves[m]);
                 }
             } else {
-                writeWord(baseOffset + (poke * trainerMonSize) + trainerMonMove1Offset, tp.getMove1());
-                writeWord(baseOffset + (poke * trainerMonSize) + trainerMonMove1Offset + 2, tp.getMove2());
-                writeWord(baseOffset + (poke * trainerMonSize) + trainerMonMove1Offset + 4, tp.getMove3());
-                writeWord(baseOffset + (poke * trainerMonSize) + trainerMonMove1Offset + 6, tp.getMove4());
+                writeWord(monOffset + EmeraldEXConstants.trainerMonMove1Offset, tp.getMove1());
+                writeWord(monOffset + EmeraldEXConstants.trainerMonMove1Offset + 2, tp.getMove2());
+                writeWord(monOffset + EmeraldEXConstants.trainerMonMove1Offset + 4, tp.getMove3());
+                writeWord(monOffset + EmeraldEXConstants.trainerMonMove1Offset + 6, tp.getMove4());
             }
         }
 
@@ -1219,10 +1285,7 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
 
     @Override
     public void setTMMoves(List<Integer> moveIndexes) {
-        if (!mapLoadingDone) {
-            preprocessMaps();
-            mapLoadingDone = true;
-        }
+        requireSubsystem(RomSubsystem.MAPS);
 
         int itemsOffset = romEntry.getValue("ItemData");
         int structlen = romEntry.getValue("ItemEntrySize");
@@ -1258,8 +1321,6 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
 
     }
 
-    private final RomFunctions.StringSizeDeterminer ssd = encodedText -> translateString(encodedText).length;
-
     @Override
     public int getTMCount() {
         return EmeraldEXConstants.tmCount;
@@ -1379,7 +1440,7 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
             return; // error
         }
         for (int i = 0; i < hexString.length() / 2; i++) {
-            rom[offset + i] = (byte) Integer.parseInt(hexString.substring(i * 2, i * 2 + 2), 16);
+            writeByte(offset + i, (byte) Integer.parseInt(hexString.substring(i * 2, i * 2 + 2), 16));
         }
     }
 
@@ -1512,9 +1573,9 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
                             evo.setExtraInfo(EmeraldEXConstants.waterStoneIndex); // water
                             // stone
                             logEvoChangeStone(evo.getFrom().getName(), evo.getTo().getName(),
-                                    itemNames[EmeraldEXConstants.waterStoneIndex]);
+                                    getItemNames()[EmeraldEXConstants.waterStoneIndex]);
                         } else {
-                            logEvoChangeLevelWithItem(evo.getFrom().getName(), evo.getTo().getName(), itemNames[item]);
+                            logEvoChangeLevelWithItem(evo.getFrom().getName(), evo.getTo().getName(), getItemNames()[item]);
                             // Replace, for this entry, w/
                             // Level up w/ Held Item at Day
                             evo.setType(EvolutionType.EVO_ITEM_HOLD_DAY);
@@ -1546,10 +1607,9 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
         int baseOffset = romEntry.getValue("TrainerData");
         int amount = romEntry.getValue("TrainerCount");
         int entryLen = romEntry.getValue("TrainerEntrySize");
-        int trainerNameOffsetInStruct = 19;
         List<String> theTrainers = new ArrayList<>();
         for (int i = 1; i < amount; i++) {
-            theTrainers.add(readVariableLengthString(baseOffset + i * entryLen + trainerNameOffsetInStruct));
+            theTrainers.add(readVariableLengthString(baseOffset + i * entryLen + EmeraldEXConstants.trainerNameOffset));
         }
         return theTrainers;
     }
@@ -1560,11 +1620,24 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
         int amount = romEntry.getValue("TrainerCount");
         int entryLen = romEntry.getValue("TrainerEntrySize");
         int nameLen = romEntry.getValue("TrainerNameLength");
-        int trainerNameOffsetInStruct = 19;
         Iterator<String> theTrainers = trainerNames.iterator();
         for (int i = 1; i < amount; i++) {
             String newName = theTrainers.next();
-            writeFixedLengthString(newName, baseOffset + i * entryLen + trainerNameOffsetInStruct, nameLen);
+            writeFixedLengthString(newName, baseOffset + i * entryLen + EmeraldEXConstants.trainerNameOffset, nameLen);
+        }
+        updateTrainerDisplayNames();
+    }
+
+    // Names are written straight to the rom, so parsed trainers take them from there
+    private void updateTrainerDisplayNames() {
+        if (trainers == null) {
+            return;
+        }
+        List<String> tcnames = getTrainerClassNames();
+        for (Trainer tr : trainers) {
+            tr.setName(readVariableLengthString(tr.getOffset() + EmeraldEXConstants.trainerNameOffset));
+            int trainerclass = rom[tr.getOffset() + EmeraldEXConstants.trainerClassOffset] & 0xFF;
+            tr.setFullDisplayName(tcnames.get(trainerclass) + " " + tr.getName());
         }
     }
 
@@ -1606,6 +1679,7 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
         for (int i = 0; i < amount; i++) {
             writeFixedLengthString(trainerClasses.next(), baseOffset + i * trainerClassStructLength, length);
         }
+        updateTrainerDisplayNames();
     }
 
     @Override
@@ -1668,12 +1742,13 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
 
     @Override
     public String abilityName(int number) {
+        requireSubsystem(RomSubsystem.ABILITIES);
         return abilityNames[number];
     }
 
     @Override
     public int internalStringLength(String string) {
-        return translateString(string).length;
+        return text.encodedLength(string);
     }
 
     @Override
@@ -1865,6 +1940,7 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
         int nameInStructOffset = 0x14;
 
         itemNames = new String[maxcount + 1];
+        freeItems = new ArrayList<>();
         for (int i = 0; i <= maxcount; i++) {
             itemNames[i] = readVariableLengthString(nameoffs + nameInStructOffset + (structlen * i));
 
@@ -1876,6 +1952,7 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
 
     @Override
     public String[] getItemNames() {
+        requireSubsystem(RomSubsystem.ITEMS);
         return itemNames;
     }
 
@@ -1887,10 +1964,7 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
 
     @Override
     public List<FieldTM> getCurrentFieldTMs() {
-        if (!mapLoadingDone) {
-            preprocessMaps();
-            mapLoadingDone = true;
-        }
+        requireSubsystem(RomSubsystem.MAPS);
         List<FieldTM> fieldTMs = new ArrayList<FieldTM>();
 
         for (ItemLocationInner il : itemOffs) {
@@ -1909,10 +1983,7 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
 
     @Override
     public void setFieldTMs(List<Integer> fieldTMs) {
-        if (!mapLoadingDone) {
-            preprocessMaps();
-            mapLoadingDone = true;
-        }
+        requireSubsystem(RomSubsystem.MAPS);
         Iterator<Integer> iterTMs = fieldTMs.iterator();
         int[] givenTMs = new int[512];
 
@@ -1935,10 +2006,7 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
 
     @Override
     public List<ItemLocation> getRegularFieldItems() {
-        if (!mapLoadingDone) {
-            preprocessMaps();
-            mapLoadingDone = true;
-        }
+        requireSubsystem(RomSubsystem.MAPS);
         List<ItemLocation> fieldItems = new ArrayList<>();
 
         for (ItemLocationInner il : itemOffs) {
@@ -1953,10 +2021,7 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
 
     @Override
     public void setRegularFieldItems(List<Integer> items) {
-        if (!mapLoadingDone) {
-            preprocessMaps();
-            mapLoadingDone = true;
-        }
+        requireSubsystem(RomSubsystem.MAPS);
         Iterator<Integer> iterItems = items.iterator();
 
         for (ItemLocationInner il : itemOffs) {
@@ -2097,6 +2162,7 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
         marts.forEach(Mart::resetState);
 
         int giftPremierBallOffset = (romEntry.getValue("StaticVars") + (EmeraldEXConstants.MART_PROMO_ITEM_INDEX * 2));
+        requireSubsystem(RomSubsystem.ITEMS);
         Collections.shuffle(freeItems, this.random);
         if (giftPremierBallOffset != 0 && !freeItems.isEmpty()) {
             writeWord(giftPremierBallOffset, freeItems.get(0));
@@ -2128,6 +2194,8 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
 
     @Override
     public void randomizeItemPrices(boolean allMartsHaveBallAndRepel) {
+        // Read the free items from the old prices first, as they are worked out again below
+        requireSubsystem(RomSubsystem.ITEMS);
 
         int itemInfoOffset = romEntry.getValue("ItemInfoOffset");
         int itemCount = romEntry.getValue("ItemCount");
@@ -2217,7 +2285,7 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
             writeFixedLengthString(trade.getNickname(), entryOffset, 12);
             writeWord(entryOffset + 14, trade.getGivenPokemon().getSpeciesNumber());
             for (int i = 0; i < 6; i++) {
-                rom[entryOffset + 16 + i] = (byte) trade.getIvs()[i];
+                writeByte(entryOffset + 16 + i, (byte) trade.getIvs()[i]);
             }
             writeWord(entryOffset + 24, trade.getOtId());
             writeWord(entryOffset + 40, trade.getItem());
@@ -2376,7 +2444,7 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
         if (romEntry.getValue("CheckValueOffset") > 0) {
             int cvOffset = romEntry.getValue("CheckValueOffset");
             for (int i = 0; i < 4; i++) {
-                rom[cvOffset + i] = (byte) ((value >> (3 - i) * 8) & 0xFF);
+                writeByte(cvOffset + i, (byte) ((value >> (3 - i) * 8) & 0xFF));
             }
         }
     }
@@ -2384,7 +2452,7 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
     @Override
     public void randomizeWarps(int warpRandoLevel, boolean extraDeadendRemoval, boolean inGymOrder) {
         List<WarpRemapping> warpRemappings = EmeraldExWarpRandomizer.randomizeWarps(getSeedUsed(), warpRandoLevel, extraDeadendRemoval,
-                inGymOrder);
+                inGymOrder, warpParallelAttempts);
 
         int warpRandoOffset = romEntry.getValue("RandomWarpTable");
         int entrySize = 8;
@@ -2394,12 +2462,12 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
         // Clean any existing data from the rom
         for (int i = 0; i < maxRemappings; i++) {
 
-            rom[warpRandoOffset + (entrySize * i) + 0] = (byte) (0xFF);
-            rom[warpRandoOffset + (entrySize * i) + 1] = (byte) (0xFF);
-            rom[warpRandoOffset + (entrySize * i) + 2] = (byte) (0xFF);
-            rom[warpRandoOffset + (entrySize * i) + 3] = (byte) (0);
-            rom[warpRandoOffset + (entrySize * i) + 4] = (byte) (0);
-            rom[warpRandoOffset + (entrySize * i) + 5] = (byte) (0);
+            writeByte(warpRandoOffset + (entrySize * i) + 0, (byte) (0xFF));
+            writeByte(warpRandoOffset + (entrySize * i) + 1, (byte) (0xFF));
+            writeByte(warpRandoOffset + (entrySize * i) + 2, (byte) (0xFF));
+            writeByte(warpRandoOffset + (entrySize * i) + 3, (byte) (0));
+            writeByte(warpRandoOffset + (entrySize * i) + 4, (byte) (0));
+            writeByte(warpRandoOffset + (entrySize * i) + 5, (byte) (0));
         }
 
         if (warpRemappings.size() >= maxRemappings)
@@ -2410,18 +2478,19 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
             WarpRemapping warpRemapping = warpRemappings.get(i);
             int remapIndex = (i + offsetIndexInWarpTable);
 
-            rom[warpRandoOffset + (entrySize * remapIndex) + 0] = (byte) (warpRemapping.getTriggerMapGroup() & 0xFF);
-            rom[warpRandoOffset + (entrySize * remapIndex) + 1] = (byte) (warpRemapping.getTriggerMapNo() & 0xFF);
-            rom[warpRandoOffset + (entrySize * remapIndex) + 2] = (byte) (warpRemapping.getTriggerWarpNo() & 0xFF);
+            writeByte(warpRandoOffset + (entrySize * remapIndex) + 0, (byte) (warpRemapping.getTriggerMapGroup() & 0xFF));
+            writeByte(warpRandoOffset + (entrySize * remapIndex) + 1, (byte) (warpRemapping.getTriggerMapNo() & 0xFF));
+            writeByte(warpRandoOffset + (entrySize * remapIndex) + 2, (byte) (warpRemapping.getTriggerWarpNo() & 0xFF));
 
-            rom[warpRandoOffset + (entrySize * remapIndex) + 3] = (byte) (warpRemapping.getTargetMapGroup() & 0xFF);
-            rom[warpRandoOffset + (entrySize * remapIndex) + 4] = (byte) (warpRemapping.getTargetMapNo() & 0xFF);
-            rom[warpRandoOffset + (entrySize * remapIndex) + 5] = (byte) (warpRemapping.getTargetWarpNo() & 0xFF);
+            writeByte(warpRandoOffset + (entrySize * remapIndex) + 3, (byte) (warpRemapping.getTargetMapGroup() & 0xFF));
+            writeByte(warpRandoOffset + (entrySize * remapIndex) + 4, (byte) (warpRemapping.getTargetMapNo() & 0xFF));
+            writeByte(warpRandoOffset + (entrySize * remapIndex) + 5, (byte) (warpRemapping.getTargetWarpNo() & 0xFF));
         }
     }
 
     private void loadTypeEffectivenessTable() {
         int typeTableOffset = romEntry.getValue("TypeEffectivenessTable");
+        typeEffectivenessTable = new HashMap<>();
         for (int i = 0; i < Type.values().length; i++) {
             TypeInteractions typeInteractions = new TypeInteractions(EmeraldEXConstants.byteToType(i));
             for (int j = 0; j < Type.values().length; j++) {
@@ -2439,6 +2508,7 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
 
     @Override
     public void randomizeTypeCharts(Settings.TypeChartMod mode) {
+        requireSubsystem(RomSubsystem.TYPE_CHART);
 
         if (mode == Settings.TypeChartMod.UNCHANGED) {
             return;
@@ -2564,6 +2634,7 @@ public class EmeraldEXRomHandler extends AbstractGBRomHandler {
 
     @Override
     public String getTypeInteractionsLog(Settings.TypeChartMod typeChartMod) {
+        requireSubsystem(RomSubsystem.TYPE_CHART);
         String result = "|        " + typeEffectivenessTable.keySet()
                                                             .stream()
                                                             .map(t -> "|" + String.format("%-" + 8 + "s", t.displayName()))
@@ -1,6 +1,8 @@
 package com.dabomstew.pkrandom.romhandlers.emeraldex;
 
 import com.dabomstew.pkrandom.FileFunctions;
+import com.dabomstew.pkrandom.RandomSource;
+import com.dabomstew.pkrandom.RomIdentityCache;
 import com.dabomstew.pkrandom.romhandlers.RomHandler;
 
 import java.io.File;
@@ -8,7 +10,6 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.List;
-import java.util.Random;
 
 public class EmeraldExRomHandlerFactory extends RomHandler.Factory {
 
@@ -23,7 +24,7 @@ public class EmeraldExRomHandlerFactory extends RomHandler.Factory {
     }
 
     @Override
-    public EmeraldEXRomHandler create(Random random, PrintStream logStream) {
+    public EmeraldEXRomHandler create(RandomSource random, PrintStream logStream) {
         return new EmeraldEXRomHandler(random, logStream, roms);
     }
 
@@ -37,7 +38,13 @@ public class EmeraldExRomHandlerFactory extends RomHandler.Factory {
             // nope
             return false;
         }
-        return EmeraldExRomUtils.detectRomInner(loaded, (int) fileLength, roms);
+        return EmeraldExRomUtils.detectRomInner(loaded, (int) fileLength, roms, () -> {
+            try {
+                return RomIdentityCache.md5(new File(filename));
+            } catch (IOException e) {
+                return null;
+            }
+        });
     }
 
     private void init()
@@ -1,22 +1,23 @@
 package com.dabomstew.pkrandom.romhandlers.emeraldex;
 
-import com.dabomstew.pkrandom.Utils;
 import com.dabomstew.pkrandom.constants.EmeraldEXConstants;
 
 import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.List;
+import java.util.function.Supplier;
 
 public class EmeraldExRomUtils {
 
     private static final String CLEAN_EMERALD_US_MD5 = "779FE3EF5965917C0BA13E4F0F96C78F";
 
-    public static boolean detectRomInner(byte[] rom, int romSize, List<RomEntry> roms) {
+    /**
+     * @param md5 gives the MD5 of the whole rom, which is only asked for when the rom's size or entry needs a hash check
+     */
+    public static boolean detectRomInner(byte[] rom, int romSize, List<RomEntry> roms, Supplier<String> md5) {
 
         if (romSize == 16 * 1024 * 1024) {
             // If they try and load a vanilla us copy of emerald we patch it
-            return isVanillaUSEmerald(rom);
+            return isVanillaUSEmerald(md5.get());
         }
 
         if (romSize != 32 * 1024 * 1024) {
@@ -25,15 +26,8 @@ public class EmeraldExRomUtils {
 
         for (RomEntry re : roms) {
             if (romCode(rom, re.getRomCode()) && (rom[EmeraldEXConstants.romVersionOffset] & 0xFF) == re.getVersion()) {
-                if (re.getHash() != null && rom.length == romSize) {
-                    try {
-                        MessageDigest md = MessageDigest.getInstance("MD5");
-                        byte[] digest = md.digest(rom);
-                        String hash = Utils.toHexString(digest);
-                        return hash.equalsIgnoreCase(re.getHash());
-                    } catch (NoSuchAlgorithmException e) {
-                        return false;
-                    }
+                if (re.getHash() != null) {
+                    return re.getHash().equalsIgnoreCase(md5.get());
                 }
                 return true; // match
             }
@@ -41,17 +35,8 @@ public class EmeraldExRomUtils {
         return false; // GBA rom we don't support yet
     }
 
-    public static boolean isVanillaUSEmerald(byte[] rom) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("MD5");
-            byte[] digest = md.digest(rom);
-            String hash = Utils.toHexString(digest);
-            return hash.equals(CLEAN_EMERALD_US_MD5);
-        } catch (NoSuchAlgorithmException e) {
-            /* Do Nothing */
-        }
-
-        return false;
+    public static boolean isVanillaUSEmerald(String md5) {
+        return CLEAN_EMERALD_US_MD5.equalsIgnoreCase(md5);
     }
 
     public static boolean romCode(byte[] rom, String codeToCheck) {
@@ -3,10 +3,6 @@ package com.dabomstew.pkrandom.romhandlers.emeraldex;
 import com.dabomstew.pkrandom.warps.*;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
-import org.jgrapht.Graph;
-import org.jgrapht.alg.connectivity.ConnectivityInspector;
-import org.jgrapht.graph.DefaultDirectedGraph;
-import org.jgrapht.traverse.BreadthFirstIterator;
 
 import java.io.BufferedReader;
 import java.io.InputStream;
@@ -14,20 +10,74 @@ import java.io.InputStreamReader;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
 
 public class EmeraldExWarpRandomizer {
 
     private static final String LOW_PRIORITY_TAG =  "low_priority";
 
+    private static WarpData cachedWarpData;
 
-    public static List<WarpRemapping> randomizeWarps(Long seed, int level, boolean extraDeadendRemoval, boolean inGymOrder) {
+    /*
+     * These are not definitive tests, the algorithm shouldn't have generated an unsolvable map, so they're just quick
+     * sanity checks. Specifically they do not check goals locked behind later gyms.
+     */
+    private static final WarpLogicValidator IN_ORDER_LOGIC = new WarpLogicValidator("E,0,10,2")
+            // E4
+            .require(Set.of(), "E,16,0,0", "E,16,1,0", "E,16,2,0", "E,16,3,0", "E,16,4,0", "E,24,107,0")
+            // The last gyms without all badges or waterfall
+            .require(Set.of("ALL_BADGES", "HOENN_WATERFALL"), "E,14,0,0", "E,12,1,0", "E,15,0,0")
+            // Then Norman without surf
+            .require(Set.of("ALL_BADGES", "HOENN_WATERFALL", "HOENN_SURF"), "E,8,1,0")
+            // Then Flannery and Rusturf tunnel without strength
+            .require(Set.of("ALL_BADGES", "HOENN_WATERFALL", "HOENN_SURF", "HOENN_STRENGTH"), "E,4,1,0", "E,24,4,0")
+            // Then Wattson, the rock smash guy and all the gyms before without rock smash
+            .require(Set.of("ALL_BADGES", "HOENN_WATERFALL", "HOENN_SURF", "HOENN_STRENGTH", "HOENN_ROCK_SMASH"), "E,10,2,0", "E,10,0,0", "E,11,3,0", "E,3,3,0");
+
+    private static final WarpLogicValidator OUT_OF_ORDER_LOGIC = new WarpLogicValidator("E,0,10,2")
+            // Every gym and the E4
+            .require(Set.of(), "E,16,0,0", "E,16,1,0", "E,16,2,0", "E,16,3,0", "E,16,4,0", "E,24,107,0", "E,14,0,0",
+                     "E,12,1,0", "E,0,7,2", "E,24,42,0", "E,15,0,0", "E,11,3,0", "E,3,3,0", "E,10,0,0", "E,4,1,0", "E,8,1,0")
+            // None of the gyms are all badges locked
+            .require(Set.of("ALL_BADGES"), "E,14,0,0", "E,12,1,0", "E,0,7,2", "E,24,42,0", "E,15,0,0", "E,11,3,0",
+                     "E,3,3,0", "E,10,0,0", "E,4,1,0", "E,8,1,0")
+            // Juan / Norman isn't waterfall locked
+            .require(Set.of("HOENN_WATERFALL"), "E,15,0,0", "E,8,1,0")
+            // Mauville / rocksmash guy isn't rocksmash locked or strength locked or go-goggle locked
+            .require(Set.of("HOENN_STRENGTH", "HOENN_ROCK_SMASH", "GO_GOGGLES"), "E,10,2,0", "E,10,0,0")
+            // Flanery / rusturf tunnel isn't strength locked / go goggles
+            .require(Set.of("HOENN_STRENGTH", "GO_GOGGLES"), "E,4,1,0", "E,24,4,0")
+            // Norman isn't surf locked
+            .require(Set.of("HOENN_SURF"), "E,8,1,0");
 
-        WarpData warpData = loadRandomWarpData();
+    /**
+     * @param parallelAttempts how many seeds to try at once, 1 tries them one after the other. The result for a given
+     *                         seed is the same either way.
+     */
+    public static List<WarpRemapping> randomizeWarps(Long seed, int level, boolean extraDeadendRemoval, boolean inGymOrder,
+                                                     int parallelAttempts) {
+
+        WarpData warpData = getWarpData();
         WarpConfig warpConfig = new WarpConfig(level, extraDeadendRemoval, seed, inGymOrder);
+        warpConfig.setParallelAttempts(parallelAttempts);
         return getRandomWarps(warpConfig, warpData);
     }
 
+    /**
+     * The warp json never changes, so it's only parsed the first time it's needed and then shared (read only)
+     * between every attempt and every thread
+     */
+    public static synchronized WarpData getWarpData() {
+        if (cachedWarpData == null) {
+            cachedWarpData = loadRandomWarpData();
+        }
+        return cachedWarpData;
+    }
+
     public static WarpData loadRandomWarpData() {
 
         WarpData warpData = new WarpData();
@@ -68,98 +118,108 @@ public class EmeraldExWarpRandomizer {
     }
 
     public static List<WarpRemapping> getRandomWarps(WarpConfig config, WarpData warpData) {
+        if (config.getParallelAttempts() > 1) {
+            return generateRandomMappingsInParallel(config, warpData);
+        }
         WarpRandomizationState state = createState(config, warpData);
         return generateRandomMappings(state);
     }
 
     private static WarpRandomizationState createState(WarpConfig warpConfig, WarpData warpData) {
 
+        // The state builds the map from the shared warp graph, with every conditional connection locked
         WarpRandomizationState state = new WarpRandomizationState(warpConfig, warpData);
 
-        Graph<Warp, MapEdge> mapGraph = new DefaultDirectedGraph<>(MapEdge.class);
-
-        // Add all the map nodes
-        state.getWarps().values().forEach(mapGraph::addVertex);
-
-        // Connect all the edges
-        for (Map.Entry<String, Warp> keyWarp : state.getWarps().entrySet()) {
-
-            Warp warp = keyWarp.getValue();
-            String warpId = keyWarp.getKey();
-
-            if (warp.getConnections() == null) {
-                continue;
-            }
+        state.moveFlagLocationToKeyIfFinalForLevel();
+        state.selectEscapePathWarps();
+        state.selectRoot();
 
-            for (Map.Entry<String, String> connection : warp.getConnections().entrySet()) {
+        return state;
+    }
 
-                MapEdge edge;
 
-                if (connection.getValue().equals("true")) {
+    private static List<WarpRemapping> generateRandomMappings(WarpRandomizationState state) {
 
-                    edge = MapEdge.fixedEdge(warpId, connection.getKey());
+        while (true) {
 
-                } else {
+            try {
+                return mapAllWarps(state, () -> false);
+            } catch (ImpossibleMapException e) {
 
-                    edge = MapEdge.conditionalEdge(warpId, connection.getKey(), connection.getValue());
-                    state.addRemainingConditionalEdge(edge);
+                // re-init the state with a new seed and try again, the warp data itself is never modified so can be reused
+                WarpConfig config = state.getConfig();
+                System.out.printf("Randomization failed for seed %s.\n%s \n Tying a new one.%n", e.getMessage(), config.getSeed());
+                config.incrementSeed();
+                state = createState(config, state.getData());
+            }
 
-                }
+        }
+    }
 
-                Warp vertexToAdd = state.getWarps().get(connection.getKey());
+    /**
+     * Tries the next few seeds at the same time on the fork join pool. Attempts are always checked in seed order, so
+     * the first seed that works wins just like it would when trying them one by one. Once an attempt succeeds, any
+     * attempt for a later seed gives up.
+     */
+    private static List<WarpRemapping> generateRandomMappingsInParallel(WarpConfig config, WarpData warpData) {
+
+        int attempts = config.getParallelAttempts();
+        long firstSeed = config.getSeed();
+        AtomicLong firstSuccess = new AtomicLong(Long.MAX_VALUE);
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        // Build the graph up front rather than having every attempt wait on it
+        warpData.getGraph();
+
+        for (long batch = 0; ; batch += attempts) {
+
+            List<ForkJoinTask<List<WarpRemapping>>> tasks = new ArrayList<>();
+            for (long increment = batch; increment < batch + attempts; increment++) {
+                final long attempt = increment;
+                final WarpConfig attemptConfig = config.withSeed(firstSeed + attempt);
+                tasks.add(pool.submit(() -> {
+                    try {
+                        List<WarpRemapping> remappings = mapAllWarps(createState(attemptConfig, warpData),
+                                                                     () -> firstSuccess.get() < attempt);
+                        if (remappings != null) {
+                            firstSuccess.accumulateAndGet(attempt, Math::min);
+                        }
+                        return remappings;
+                    } catch (ImpossibleMapException e) {
+                        System.out.printf("Randomization failed for seed %s.\n%s \n Tying a new one.%n", e.getMessage(), attemptConfig.getSeed());
+                        return null;
+                    }
+                }));
+            }
 
-                if (vertexToAdd != null) {
-                    mapGraph.addEdge(warp, vertexToAdd, edge);
+            for (ForkJoinTask<List<WarpRemapping>> task : tasks) {
+                List<WarpRemapping> remappings = task.join();
+                if (remappings != null) {
+                    tasks.forEach(t -> t.cancel(false));
+                    return remappings;
                 }
-
             }
-
         }
-
-        ConnectivityInspector<Warp, MapEdge> inspector = new ConnectivityInspector<>(mapGraph);
-        List<Set<Warp>> components = inspector.connectedSets()
-                .stream()
-                .filter(c -> c.size() > 1)
-                .collect(Collectors.toList());
-        state.setUnconnectedComponents(components);
-
-        Set<MapEdge> conditionalEdges = mapGraph.edgeSet()
-                .stream()
-                .filter(edge -> edge.getType() == MapEdge.Type.CONDITIONAL)
-                .collect(Collectors.toSet());
-
-        conditionalEdges.forEach(mapGraph::removeEdge);
-
-        state.moveFlagLocationToKeyIfFinalForLevel();
-        state.selectEscapePathWarps();
-        state.selectRoot();
-
-        state.setMapGraph(mapGraph);
-
-        return state;
     }
 
-
-    private static List<WarpRemapping> generateRandomMappings(WarpRandomizationState state) {
+    /**
+     * Maps every warp for this state's seed, returns null if the attempt was abandoned part way through
+     */
+    private static List<WarpRemapping> mapAllWarps(WarpRandomizationState state, BooleanSupplier abandoned)
+            throws ImpossibleMapException {
 
         while (state.isMoreWarpsToMap()) {
 
-            try {
-                doNextMapping(state);
-                state.updateConnections();
-                //System.out.println("Warps " + state.getProgress());
-
-                if (!state.isMoreWarpsToMap()) {
-                    doSanityChecks(state);
-                }
+            if (abandoned.getAsBoolean()) {
+                return null;
+            }
 
-            } catch (ImpossibleMapException e) {
+            doNextMapping(state);
+            state.updateConnections();
+            //System.out.println("Warps " + state.getProgress());
 
-                // re-init the state with a new seed and try again
-                WarpConfig config = state.getConfig();
-                System.out.printf("Randomization failed for seed %s.\n%s \n Tying a new one.%n", e.getMessage(), config.getSeed());
-                config.incrementSeed();
-                state = createState(config, loadRandomWarpData());
+            if (!state.isMoreWarpsToMap()) {
+                doSanityChecks(state);
             }
 
         }
@@ -172,13 +232,8 @@ public class EmeraldExWarpRandomizer {
 
     private static void doSanityChecks(WarpRandomizationState state) throws ImpossibleMapException {
 
-        Graph<Warp, MapEdge> mapGraph = state.getMapGraph();
-
-        boolean hasDanglingWarps = mapGraph.vertexSet()
-                                           .stream()
-                                           .anyMatch(w -> !mapGraph.edgesOf(w).stream().map(MapEdge::getType)
-                                           .collect(Collectors.toList())
-                                           .contains(MapEdge.Type.WARP));
+        // Every mapped warp has a warp edge
+        boolean hasDanglingWarps = !state.getUnmappedWarps().isEmpty();
         if (hasDanglingWarps) {
             throw new ImpossibleMapException("Final graph had warps that should be mapped but weren't");
         }
@@ -186,7 +241,7 @@ public class EmeraldExWarpRandomizer {
         if (state.getConfig().getLevel() == 10) {
 
             // This should not be hardcoded
-            int warpCount = mapGraph.vertexSet().size();
+            int warpCount = state.getWarpCount();
             if (warpCount < 516) {
                 throw new ImpossibleMapException("Expected 516 edged but found " + warpCount);
             }
@@ -206,18 +261,12 @@ public class EmeraldExWarpRandomizer {
 
         }
 
-        if (state.getConfig().getLevel() == 10 && state.getConfig().isInGymOrder()) {
-
-            if (!validateInOrderLogic(state)) {
-                throw new ImpossibleMapException("The validator could not find the intended way to beat this seed");
-            }
-
-        }
-
-        if (state.getConfig().getLevel() == 10 && !state.getConfig().isInGymOrder()) {
+        if (state.getConfig().getLevel() == 10) {
 
-            if (!validateOutOfOrderLogic(state)) {
-                throw new ImpossibleMapException("The validator could not find the intended way to beat this seed");
+            WarpLogicValidator validator = state.getConfig().isInGymOrder() ? IN_ORDER_LOGIC : OUT_OF_ORDER_LOGIC;
+            String failure = validator.findFailure(state.getMap());
+            if (failure != null) {
+                throw new ImpossibleMapException("The validator could not find the intended way to beat this seed, " + failure);
             }
 
         }
@@ -226,30 +275,29 @@ public class EmeraldExWarpRandomizer {
 
     private static void doNextMapping(WarpRandomizationState state) throws ImpossibleMapException {
 
+        // These lists all come back in id order
         List<Warp> reachableNodes = findUnmappedReachableNodes(state);
-        reachableNodes.sort(Comparator.comparing(Warp::getId));
         Collections.shuffle(reachableNodes, state.getRandom());
 
-        Graph<Warp, MapEdge> mapGraph = state.getMapGraph();
-        List<Warp> unreachableNodes = mapGraph.vertexSet().stream().filter(w -> !w.isMapped()).collect(Collectors.toList());
-        unreachableNodes.removeAll(reachableNodes);
-        unreachableNodes.sort(Comparator.comparing(Warp::getId));
+        List<Warp> unreachableNodes = state.getUnmappedUnreachableWarps();
         Collections.shuffle(unreachableNodes, state.getRandom());
 
-        List<Warp> unreachableFlagLocations = unreachableNodes.stream()
-                .filter(w -> state.getRemainingFlagLocations().containsKey(w.getId())).collect(Collectors.toList());
-        unreachableFlagLocations.sort(Comparator.comparing(Warp::getId));
+        List<Warp> unreachableFlagLocations = new ArrayList<>();
+        List<Warp> unreachableKeyLocations = new ArrayList<>();
+        List<Warp> unreachableHubs = new ArrayList<>();
+        for (Warp warp : state.getUnmappedUnreachableWarps()) {
+            if (state.isRemainingFlagLocation(warp)) {
+                unreachableFlagLocations.add(warp);
+            }
+            if (state.isRemainingKeyLocation(warp)) {
+                unreachableKeyLocations.add(warp);
+            }
+            if (state.degreeOf(warp) > 1) {
+                unreachableHubs.add(warp);
+            }
+        }
         Collections.shuffle(unreachableFlagLocations, state.getRandom());
-
-        List<Warp> unreachableKeyLocations = unreachableNodes.stream()
-                .filter(w -> state.getRemainingKeyLocations().containsKey(w.getId())).collect(Collectors.toList());
-        unreachableKeyLocations.sort(Comparator.comparing(Warp::getId));
         Collections.shuffle(unreachableKeyLocations, state.getRandom());
-
-        List<Warp> unreachableHubs = unreachableNodes.stream()
-                .filter(w -> mapGraph.degreeOf(w) > 1)
-                .collect(Collectors.toList());
-        unreachableHubs.sort(Comparator.comparing(Warp::getId));
         Collections.shuffle(unreachableHubs, state.getRandom());
 
         // Make sure there are still warps to map, and we have not run out of mappings to add all the locations that need to be added
@@ -258,7 +306,7 @@ public class EmeraldExWarpRandomizer {
         } else if (reachableNodes.isEmpty() && !(unreachableFlagLocations.isEmpty() && unreachableKeyLocations.isEmpty())) {
             throw new ImpossibleMapException("Can't map any more nodes but important locations were missed");
         } else if (reachableNodes.isEmpty() && !unreachableNodes.stream()
-                .filter(w -> !w.getTags().contains(LOW_PRIORITY_TAG))
+                .filter(w -> !state.hasTag(w, LOW_PRIORITY_TAG))
                 .collect(Collectors.toSet()).isEmpty()) {
             throw new ImpossibleMapException("Can't map any more nodes but there are still non-low priority location missed");
         }
@@ -278,7 +326,7 @@ public class EmeraldExWarpRandomizer {
 
         WarpPair warpPair;
 
-        if (!state.getUnconnectedComponents().isEmpty()) {
+        if (state.hasUnconnectedComponents()) {
 
             //System.out.println("Mapping MAIN HUB");
             warpPair = getUnconnectedComponentMapping(state, reachableNodes);
@@ -302,7 +350,7 @@ public class EmeraldExWarpRandomizer {
             Warp sourceWarp = reachableNodes.get(state.getRandom().nextInt(reachableNodes.size()));
             reachableNodes.remove(sourceWarp);
             List<Warp> targetCandidates = unreachableNodes.stream()
-                    .filter(w -> mapGraph.degreeOf(w) > 1)
+                    .filter(w -> state.degreeOf(w) > 1)
                     .collect(Collectors.toList());
             Warp targetWarp = state.getRandomUnmappedWarpForWarp(sourceWarp, targetCandidates);
             warpPair = new WarpPair(sourceWarp, targetWarp);
@@ -327,7 +375,7 @@ public class EmeraldExWarpRandomizer {
             reachableNodes.remove(sourceWarp);
 
             List<Warp> priorityUnreachableNodes = unreachableNodes.stream()
-                    .filter(w -> !w.getTags().contains(LOW_PRIORITY_TAG))
+                    .filter(w -> !state.hasTag(w, LOW_PRIORITY_TAG))
                     .collect(Collectors.toList());
             if (priorityUnreachableNodes.isEmpty()) {
                 targetWarp = state.getRandomUnmappedWarpForWarp(sourceWarp, priorityUnreachableNodes);
@@ -351,7 +399,7 @@ public class EmeraldExWarpRandomizer {
             reachableNodes.remove(sourceWarp);
 
             Warp targetWarp = state.getOddOnOutWarp();
-            mapGraph.addVertex(targetWarp);
+            state.addWarp(targetWarp);
             warpPair = new WarpPair(sourceWarp, targetWarp);
         }
 
@@ -367,7 +415,7 @@ public class EmeraldExWarpRandomizer {
 
             if (!unreachableNodes.isEmpty()) {
                 throw new ImpossibleMapException("Some nodes are unreachable");
-//                warpPair.getTargetWarp().setMapped();
+//                state.setMapped(warpPair.getTargetWarp());
 //                state.setMoreWarpsToMap(false);
 //                return;
             } else {
@@ -375,28 +423,22 @@ public class EmeraldExWarpRandomizer {
             }
         }
 
-        if (warpPair.getSourceWarp().isMapped() || warpPair.getTargetWarp().isMapped()) {
+        if (state.isMapped(warpPair.getSourceWarp()) || state.isMapped(warpPair.getTargetWarp())) {
             throw new ImpossibleMapException("Trying to map a warp that is already mapped...");
         }
 
-        MapEdge mapEdge = MapEdge.warpEdge(warpPair.getSourceWarp().getId(), warpPair.getTargetWarp().getId());
-        mapGraph.addEdge(warpPair.getSourceWarp(), warpPair.getTargetWarp(), mapEdge);
-
-        if (!mapGraph.containsEdge(mapEdge)) {
+        if (!state.addWarpEdge(warpPair.getSourceWarp(), warpPair.getTargetWarp())) {
             throw new ImpossibleMapException("JGrapht messed up, let's try and recover...");
         }
 
         if (!warpPair.getSourceWarp().getId().equals(warpPair.getTargetWarp().getId())) {
-            MapEdge oppositeDirectionMapEdge = MapEdge.warpEdge(warpPair.getTargetWarp().getId(), warpPair.getSourceWarp().getId());
-            mapGraph.addEdge(warpPair.getTargetWarp(), warpPair.getSourceWarp(), oppositeDirectionMapEdge);
-
-            if (!mapGraph.containsEdge(oppositeDirectionMapEdge)) {
+            if (!state.addWarpEdge(warpPair.getTargetWarp(), warpPair.getSourceWarp())) {
                 throw new ImpossibleMapException("JGrapht messed up, let's try and recover...");
             }
         }
 
-        warpPair.getSourceWarp().setMapped();
-        warpPair.getTargetWarp().setMapped();
+        state.setMapped(warpPair.getSourceWarp());
+        state.setMapped(warpPair.getTargetWarp());
     }
 
     private static WarpPair getHomeLinkMapping(WarpRandomizationState state, List<Warp> reachableNodes)
@@ -405,12 +447,9 @@ public class EmeraldExWarpRandomizer {
         Warp sourceWarp;
         Warp targetWarp;
 
-        List<Warp> sourceCandidates = state.getMapGraph()
-                .vertexSet()
+        List<Warp> sourceCandidates = state.getUnmappedWarps()
                 .stream()
-                .filter(w -> !w.isMapped())
                 .filter(w -> state.getRemainingMustLinkHomeWarps().contains(w.getId()))
-                .sorted(Comparator.comparing(Warp::getId))
                 .collect(Collectors.toList());
 
         if (sourceCandidates.isEmpty()) {
@@ -456,10 +495,7 @@ public class EmeraldExWarpRandomizer {
         sourceWarp = reachableNodes.get(0);
         reachableNodes.remove(sourceWarp);
 
-        List<Warp> allUnconnectedComponentWarps = state.getUnconnectedComponents()
-                .stream()
-                .flatMap(Set::stream)
-                .collect(Collectors.toList());
+        List<Warp> allUnconnectedComponentWarps = state.getUnconnectedComponentWarps();
 
         // If we can use unconnected warps that will not lead to softlocks that would be better
         List<Warp> preferedUnconnectedComponentWarps =
@@ -499,262 +535,9 @@ public class EmeraldExWarpRandomizer {
     }
 
     public static List<Warp> findUnmappedReachableNodes(WarpRandomizationState state) {
-
-        List<Warp> unmappedNodes = new ArrayList<>();
-        BreadthFirstIterator<Warp, MapEdge> iterator = new BreadthFirstIterator<>(state.getMapGraph(), state.getRoot());
-        while (iterator.hasNext()) {
-            try {
-                Warp currentVertex = iterator.next();
-
-                if (!currentVertex.isMapped()) {
-                    unmappedNodes.add(currentVertex);
-                }
-
-            } catch (NullPointerException e) {
-                /* Seems like the jgrapht has some bugs for graphs that aren't well-connected */
-            }
-        }
-
-        return unmappedNodes;
+        return state.getUnmappedReachableWarps();
     }
 
-    /**
-     * This is not a definitive test, the algorithm shouldn't have generated an unsolvable map, so it's just a quick sanity check.
-     * Specifically this does not check goals locked behind later gyms
-     */
-    private static boolean validateInOrderLogic(WarpRandomizationState state) {
-
-        Graph<Warp, MapEdge> mapGraph = state.getMapGraph();
-
-        Warp startingWarp = state.getWarps().get("E,0,10,2");
-        List<String> e4Goals = new ArrayList<>(List.of("E,16,0,0", "E,16,1,0", "E,16,2,0", "E,16,3,0", "E,16,4,0", "E,24,107,0"));
-
-        ConnectivityInspector<Warp, MapEdge> connectivityInspector = new ConnectivityInspector<>(mapGraph);
-        for (String goal : e4Goals) {
-            Warp targetWarp = state.getWarps().get(goal);
-            if (!connectivityInspector.pathExists(startingWarp, targetWarp)) {
-                return false;
-            }
-        }
-
-        Set<MapEdge> conditionalEdges = mapGraph.edgeSet()
-                                                .stream()
-                                                .filter(e -> e.getType() == MapEdge.Type.CONDITIONAL)
-                                                .filter(e -> e.getCondition().equals("ALL_BADGES"))
-                                                .filter(e -> e.getCondition().equals("HOENN_WATERFALL"))
-                                                .collect(Collectors.toSet());
-        mapGraph.removeAllEdges(conditionalEdges);
-
-        connectivityInspector = new ConnectivityInspector<>(mapGraph);
-        List<String> lastGymGoals = new ArrayList<>(List.of("E,14,0,0", "E,12,1,0",  "E,15,0,0"));
-        for (String goal : lastGymGoals) {
-            Warp targetWarp = state.getWarps().get(goal);
-            if (!connectivityInspector.pathExists(startingWarp, targetWarp)) {
-                return false;
-            }
-        }
-
-        // Remove Surf and check that we can still access norman
-        conditionalEdges = mapGraph.edgeSet()
-                                   .stream()
-                                   .filter(e -> e.getType() == MapEdge.Type.CONDITIONAL)
-                                   .filter(e -> e.getCondition().equals("HOENN_SURF"))
-                                   .collect(Collectors.toSet());
-        mapGraph.removeAllEdges(conditionalEdges);
-        Warp normanWarp = state.getWarps().get("E,8,1,0");
-        connectivityInspector = new ConnectivityInspector<>(mapGraph);
-        if (!connectivityInspector.pathExists(startingWarp, normanWarp)) {
-            return false;
-        }
-
-        // Remove strength and check we can still access Flannery and Rusturf tunnel
-        conditionalEdges = mapGraph.edgeSet()
-                                   .stream()
-                                   .filter(e -> e.getType() == MapEdge.Type.CONDITIONAL)
-                                   .filter(e -> e.getCondition().equals("HOENN_STRENGTH"))
-                                   .collect(Collectors.toSet());
-        mapGraph.removeAllEdges(conditionalEdges);
-        connectivityInspector = new ConnectivityInspector<>(mapGraph);
-        List<String> preStrengthGoals = new ArrayList<>(List.of("E,4,1,0", "E,24,4,0"));
-        for (String goal : preStrengthGoals) {
-            Warp targetWarp = state.getWarps().get(goal);
-            if (!connectivityInspector.pathExists(startingWarp, targetWarp)) {
-                return false;
-            }
-        }
-
-        // Remove Rocksmash and check that we can still access Wattson and rocksmash guy... and all the gyms before
-        conditionalEdges = mapGraph.edgeSet()
-                                   .stream()
-                                   .filter(e -> e.getType() == MapEdge.Type.CONDITIONAL)
-                                   .filter(e -> e.getCondition().equals("HOENN_ROCK_SMASH"))
-                                   .collect(Collectors.toSet());
-        mapGraph.removeAllEdges(conditionalEdges);
-        connectivityInspector = new ConnectivityInspector<>(mapGraph);
-        List<String> preRockSmashGoals = new ArrayList<>(List.of("E,10,2,0", "E,10,0,0", "E,11,3,0", "E,3,3,0"));
-        for (String goal : preRockSmashGoals) {
-            Warp targetWarp = state.getWarps().get(goal);
-            if (!connectivityInspector.pathExists(startingWarp, targetWarp)) {
-                return false;
-            }
-        }
-
-        return true;
-    }
-
-    /**
-     * This is not a definitive test, the algorithm shouldn't have generated an unsolvable map, quick sanity check.
-     * Specifically this does not check goals locked behind later gyms
-     */
-    private static boolean  validateOutOfOrderLogic(WarpRandomizationState state) {
-
-        Graph<Warp, MapEdge> mapGraph = state.getMapGraph();
-
-        Warp startingWarp = state.getWarps().get("E,0,10,2");
-        List<String> allGoals = new ArrayList<>(List.of("E,16,0,0",
-                                                        "E,16,1,0",
-                                                        "E,16,2,0",
-                                                        "E,16,3,0",
-                                                        "E,16,4,0",
-                                                        "E,24,107,0",
-                                                        "E,14,0,0",
-                                                        "E,12,1,0",
-                                                        "E,0,7,2",
-                                                        "E,24,42,0",
-                                                        "E,15,0,0",
-                                                        "E,11,3,0",
-                                                        "E,3,3,0",
-                                                        "E,10,0,0",
-                                                        "E,4,1,0",
-                                                        "E,8,1,0"));
-
-        ConnectivityInspector<Warp, MapEdge> connectivityInspector = new ConnectivityInspector<>(mapGraph);
-        for (String goal : allGoals) {
-            Warp targetWarp = state.getWarps().get(goal);
-            if (!connectivityInspector.pathExists(startingWarp, targetWarp)) {
-                return false;
-            }
-        }
-
-        // None of the gyms are all badges locked
-        Graph<Warp, MapEdge> badgeLockCheckGraph = copyGraph(mapGraph);
-        Set<MapEdge> conditionalEdges = badgeLockCheckGraph.edgeSet()
-                                                           .stream()
-                                                           .filter(e -> e.getType() == MapEdge.Type.CONDITIONAL)
-                                                           .filter(e -> e.getCondition().equals("ALL_BADGES"))
-                                                           .collect(Collectors.toSet());
-        badgeLockCheckGraph.removeAllEdges(conditionalEdges);
-        List<String> badgeGoals = new ArrayList<>(List.of("E,14,0,0",
-                                                          "E,12,1,0",
-                                                          "E,0,7,2",
-                                                          "E,24,42,0",
-                                                          "E,15,0,0",
-                                                          "E,11,3,0",
-                                                          "E,3,3,0",
-                                                          "E,10,0,0",
-                                                          "E,4,1,0",
-                                                          "E,8,1,0"));
-        connectivityInspector = new ConnectivityInspector<>(badgeLockCheckGraph);
-        for (String goal : badgeGoals) {
-            Warp targetWarp = state.getWarps().get(goal);
-            if (!connectivityInspector.pathExists(startingWarp, targetWarp)) {
-                return false;
-            }
-        }
-
-        // Juan / Norman isn't waterfall locked
-        Graph<Warp, MapEdge> waterfallLockCheckGraph = copyGraph(mapGraph);
-        conditionalEdges = waterfallLockCheckGraph.edgeSet()
-                                                  .stream()
-                                                  .filter(e -> e.getType() == MapEdge.Type.CONDITIONAL)
-                                                  .filter(e -> e.getCondition().equals("HOENN_WATERFALL"))
-                                                  .collect(Collectors.toSet());
-        waterfallLockCheckGraph.removeAllEdges(conditionalEdges);
-        List<String> waterfallGoals = new ArrayList<>(List.of("E,15,0,0", "E,8,1,0"));
-        connectivityInspector = new ConnectivityInspector<>(waterfallLockCheckGraph);
-        for (String goal : waterfallGoals) {
-            Warp targetWarp = state.getWarps().get(goal);
-            if (!connectivityInspector.pathExists(startingWarp, targetWarp)) {
-                return false;
-            }
-        }
-
-        // Mauville / rocksmash guy isn't rocksmash locked or strength locked or go-goggle locked
-        Graph<Warp, MapEdge> rockSmashLockCheckGraph = copyGraph(mapGraph);
-        conditionalEdges = rockSmashLockCheckGraph.edgeSet()
-                                                  .stream()
-                                                  .filter(e -> e.getType() == MapEdge.Type.CONDITIONAL)
-                                                  .filter(e -> e.getCondition().equals("HOENN_STRENGTH"))
-                                                  .filter(e -> e.getCondition().equals("HOENN_ROCK_SMASH"))
-                                                  .filter(e -> e.getCondition().equals("GO_GOGGLES"))
-                                                  .collect(Collectors.toSet());
-        rockSmashLockCheckGraph.removeAllEdges(conditionalEdges);
-        List<String> rockSmashGoals = new ArrayList<>(List.of("E,10,2,0", "E,10,0,0"));
-        connectivityInspector = new ConnectivityInspector<>(rockSmashLockCheckGraph);
-        for (String goal : rockSmashGoals) {
-            Warp targetWarp = state.getWarps().get(goal);
-            if (!connectivityInspector.pathExists(startingWarp, targetWarp)) {
-                return false;
-            }
-        }
-
-        // Flanery / rusturf tunnel isn't strength locked / go goggles
-        Graph<Warp, MapEdge> strengthLockCheckGraph = copyGraph(mapGraph);
-        conditionalEdges = strengthLockCheckGraph.edgeSet()
-                                                 .stream()
-                                                 .filter(e -> e.getType() == MapEdge.Type.CONDITIONAL)
-                                                 .filter(e -> e.getCondition().equals("HOENN_STRENGTH"))
-                                                 .filter(e -> e.getCondition().equals("GO_GOGGLES"))
-                                                 .collect(Collectors.toSet());
-        strengthLockCheckGraph.removeAllEdges(conditionalEdges);
-        List<String> strengthGoals = new ArrayList<>(List.of("E,4,1,0", "E,24,4,0"));
-        connectivityInspector = new ConnectivityInspector<>(strengthLockCheckGraph);
-        for (String goal : strengthGoals) {
-            Warp targetWarp = state.getWarps().get(goal);
-            if (!connectivityInspector.pathExists(startingWarp, targetWarp)) {
-                return false;
-            }
-        }
-
-        // Norman isn't surf locked
-        Graph<Warp, MapEdge> surfLockCheckGraph = copyGraph(mapGraph);
-        conditionalEdges = surfLockCheckGraph.edgeSet()
-                                             .stream()
-                                             .filter(e -> e.getType() == MapEdge.Type.CONDITIONAL)
-                                             .filter(e -> e.getCondition().equals("HOENN_SURF"))
-                                             .collect(Collectors.toSet());
-        strengthLockCheckGraph.removeAllEdges(conditionalEdges);
-        List<String> surfGoals = new ArrayList<>(List.of("E,8,1,0"));
-        connectivityInspector = new ConnectivityInspector<>(surfLockCheckGraph);
-        for (String goal : surfGoals) {
-            Warp targetWarp = state.getWarps().get(goal);
-            if (!connectivityInspector.pathExists(startingWarp, targetWarp)) {
-                return false;
-            }
-        }
-
-        return true;
-    }
-
-    public static Graph<Warp, MapEdge> copyGraph(Graph<Warp, MapEdge> graph) {
-
-        Graph<Warp, MapEdge> copiedGraph = new DefaultDirectedGraph<>(MapEdge.class);
-
-        for (Warp vertex : graph.vertexSet()) {
-            copiedGraph.addVertex(vertex);
-        }
-
-        for (MapEdge edge : graph.edgeSet()) {
-            Warp source = graph.getEdgeSource(edge);
-            Warp target = graph.getEdgeTarget(edge);
-            MapEdge clonedEdge = (MapEdge) edge.clone();
-            copiedGraph.addEdge(source, target, clonedEdge);
-        }
-
-        return copiedGraph;
-    }
-
-
     private static Set<String> validationTriggerList() {
         return Set.of("0,0,1",
                       "0,0,2",
@@ -117,10 +117,8 @@ public class RomEntry {
         return marts;
     }
 
+    // Missing entries read as 0. Reading never changes the map, so it's safe from several threads
     public int getValue(String key) {
-        if (!entries.containsKey(key)) {
-            entries.put(key, 0);
-        }
-        return entries.get(key);
+        return entries.getOrDefault(key, 0);
     }
 }
@@ -0,0 +1,191 @@
+package com.dabomstew.pkrandom.romhandlers.emeraldex;
+
+import com.dabomstew.pkrandom.FileFunctions;
+import com.dabomstew.pkrandom.constants.EmeraldEXConstants;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Converts between java strings and game text using a .tbl character table. Decoding is a lookup per byte, encoding
+ * walks a prefix trie of the table so multi character entries like [PK] or \n are matched longest first in one pass.
+ * <p>
+ * Bytes without a table entry are read as \xHH, and a text variable as \vHH, and both escapes are written back as the
+ * bytes they stand for. Characters that can't be encoded are dropped.
+ */
+public class TextCodec {
+
+    private static final Map<String, TextCodec> loaded = new ConcurrentHashMap<>();
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private final String[] decodeTable = new String[256];
+
+    private final Node root = new Node();
+
+    /**
+     * The codec for a table in the config directory, which is only read the first time it's asked for
+     */
+    public static TextCodec forTable(String filename) {
+        return loaded.computeIfAbsent(filename, TextCodec::load);
+    }
+
+    private static TextCodec load(String filename) {
+        TextCodec codec = new TextCodec();
+        try {
+            Scanner sc = new Scanner(FileFunctions.openConfig(filename + ".tbl"), StandardCharsets.UTF_8);
+            while (sc.hasNextLine()) {
+                String q = sc.nextLine();
+                if (!q.trim().isEmpty()) {
+                    String[] r = q.split("=", 2);
+                    if (r[1].endsWith("\r\n")) {
+                        r[1] = r[1].substring(0, r[1].length() - 2);
+                    }
+                    codec.add(Integer.parseInt(r[0], 16), r[1]);
+                }
+            }
+            sc.close();
+        } catch (IOException e) {
+            // Do nothing
+        }
+        return codec;
+    }
+
+    private void add(int value, String text) {
+        decodeTable[value] = text;
+        Node node = root;
+        for (int i = 0; i < text.length(); i++) {
+            node = node.getOrAdd(text.charAt(i));
+        }
+        // Later entries win, as they did when the table was a map
+        node.value = value;
+    }
+
+    public String decode(byte[] rom, int offset, int maxLength) {
+        StringBuilder string = new StringBuilder();
+        for (int c = 0; c < maxLength; c++) {
+            int currChar = rom[offset + c] & 0xFF;
+            if (decodeTable[currChar] != null) {
+                string.append(decodeTable[currChar]);
+            } else {
+                if (currChar == EmeraldEXConstants.textTerminator) {
+                    break;
+                } else if (currChar == EmeraldEXConstants.textVariable) {
+                    appendHex(string.append("\\v"), rom[offset + c + 1] & 0xFF);
+                    c++;
+                } else {
+                    appendHex(string.append("\\x"), currChar);
+                }
+            }
+        }
+        return string.toString();
+    }
+
+    public byte[] encode(String text) {
+        byte[] buffer = new byte[text.length()];
+        return Arrays.copyOf(buffer, encode(text, buffer));
+    }
+
+    /**
+     * Encodes into the start of buffer, which needs room for text.length() bytes, and returns the encoded length
+     */
+    public int encode(String text, byte[] buffer) {
+        return encode(text, buffer, true);
+    }
+
+    public int encodedLength(String text) {
+        return encode(text, null, false);
+    }
+
+    private int encode(String text, byte[] buffer, boolean write) {
+        int length = 0;
+        int pos = 0;
+        int end = text.length();
+        while (pos < end) {
+            char c = text.charAt(pos);
+            if (c == '\\' && pos + 3 < end) {
+                char kind = text.charAt(pos + 1);
+                int value = parseHex(text, pos + 2);
+                if (value >= 0 && (kind == 'x' || kind == 'v')) {
+                    if (kind == 'v') {
+                        if (write) {
+                            buffer[length] = (byte) EmeraldEXConstants.textVariable;
+                        }
+                        length++;
+                    }
+                    if (write) {
+                        buffer[length] = (byte) value;
+                    }
+                    length++;
+                    pos += 4;
+                    continue;
+                }
+            }
+
+            // Longest table entry starting here
+            int value = -1;
+            int matchEnd = pos + 1;
+            Node node = root;
+            for (int i = pos; i < end && (node = node.child(text.charAt(i))) != null; i++) {
+                if (node.value >= 0) {
+                    value = node.value;
+                    matchEnd = i + 1;
+                }
+            }
+            if (value >= 0) {
+                if (write) {
+                    buffer[length] = (byte) value;
+                }
+                length++;
+            }
+            pos = matchEnd;
+        }
+        return length;
+    }
+
+    private static int parseHex(String text, int offset) {
+        int high = Character.digit(text.charAt(offset), 16);
+        int low = Character.digit(text.charAt(offset + 1), 16);
+        return high < 0 || low < 0 ? -1 : (high << 4) | low;
+    }
+
+    private static void appendHex(StringBuilder string, int value) {
+        string.append(HEX_DIGITS[value >>> 4]).append(HEX_DIGITS[value & 0x0F]);
+    }
+
+    private static class Node {
+        // Children sorted by character, so finding one is a binary search
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private int value = -1;
+
+        private Node child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        private Node getOrAdd(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            int insertAt = -i - 1;
+            Node node = new Node();
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newKeys[insertAt] = c;
+            newChildren[insertAt] = node;
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            keys = newKeys;
+            children = newChildren;
+            return node;
+        }
+    }
+}
@@ -5,7 +5,6 @@ import java.util.List;
 public class FlagCondition {
     private String flag;
     private List<String> condition;
-    private boolean set;
 
     public String getFlag() {
         return flag;
@@ -23,14 +22,6 @@ public class FlagCondition {
         this.condition = condition;
     }
 
-    public boolean isSet() {
-        return set;
-    }
-
-    public void setFlag() {
-        this.set = true;
-    }
-
     @Override
     public String toString() {
         return "FlagCondition{" +
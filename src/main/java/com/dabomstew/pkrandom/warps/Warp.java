@@ -16,7 +16,7 @@ public class Warp {
     private Boolean groupMain = false;
     private Boolean ignore = false;
     private List<String> tags = new ArrayList<>();
-    private boolean isMapped = false;
+    private transient int index = -1; // Set when the WarpGraph is built
 
     // Getters and Setters
     public String getName() {
@@ -83,12 +83,12 @@ public class Warp {
         this.tags = tags;
     }
 
-    public boolean isMapped() {
-        return isMapped;
+    public int getIndex() {
+        return index;
     }
 
-    public void setMapped() {
-        this.isMapped = true;
+    public void setIndex(int index) {
+        this.index = index;
     }
 
     public String getId() {
@@ -10,6 +10,8 @@ public class WarpConfig {
 
     private boolean inGymOrder;
 
+    private int parallelAttempts = 1;
+
     public WarpConfig(Integer level, boolean extraDeadendRemoval, long seed, boolean inGymOrder) {
         this.level = level;
         this.extraDeadendRemoval = extraDeadendRemoval;
@@ -36,4 +38,18 @@ public class WarpConfig {
     public void incrementSeed() {
         this.seed++;
     }
+
+    public int getParallelAttempts() {
+        return parallelAttempts;
+    }
+
+    public void setParallelAttempts(int parallelAttempts) {
+        this.parallelAttempts = parallelAttempts;
+    }
+
+    public WarpConfig withSeed(long seed) {
+        WarpConfig copy = new WarpConfig(level, extraDeadendRemoval, seed, inGymOrder);
+        copy.setParallelAttempts(parallelAttempts);
+        return copy;
+    }
 }
@@ -1,8 +1,13 @@
 package com.dabomstew.pkrandom.warps;
 
+import java.util.Collections;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+/**
+ * The parsed warp json. This is loaded once and shared between every randomization attempt (and thread), so it must
+ * be treated as read only; anything that changes during an attempt lives in WarpRandomizationState.
+ */
 public class WarpData {
 
     private EscapePaths escapePaths;
@@ -13,6 +18,8 @@ public class WarpData {
 
     private Map<String, Warp> warps;
 
+    private WarpGraph graph;
+
     public void setEscapePaths(EscapePaths escapePaths) {
         this.escapePaths = escapePaths;
     }
@@ -26,7 +33,13 @@ public class WarpData {
     }
 
     public void setWarps(Map<String, Warp> warps) {
-        this.warps = warps;
+        this.warps = Collections.unmodifiableMap(warps.entrySet()
+                                                      .stream()
+                                                      .peek(entry -> entry.getValue().setId(entry.getKey()))
+                                                      .collect(Collectors.toMap(
+                                                              Map.Entry::getKey,
+                                                              Map.Entry::getValue
+                                                      )));
     }
 
     public EscapePaths getEscapePaths() {
@@ -42,13 +55,13 @@ public class WarpData {
     }
 
     public Map<String, Warp> getWarps() {
+        return warps;
+    }
 
-        return warps.entrySet()
-                    .stream()
-                    .peek(entry -> entry.getValue().setId(entry.getKey()))
-                    .collect(Collectors.toMap(
-                            Map.Entry::getKey,
-                            Map.Entry::getValue
-                    ));
+    public synchronized WarpGraph getGraph() {
+        if (graph == null) {
+            graph = new WarpGraph(warps);
+        }
+        return graph;
     }
 }
@@ -0,0 +1,191 @@
+package com.dabomstew.pkrandom.warps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact read only graph of every warp in the warp json and the walkable connections between them.
+ * <p>
+ * Warps are given dense indexes in id order, so walking a BitSet of warps visits them in the same order as sorting
+ * them by id. The connections are stored as CSR arrays: the outgoing edges of warp i are the edge indexes
+ * edgeStart[i] until edgeStart[i + 1], and an edge with a null condition can always be walked.
+ */
+public class WarpGraph {
+
+    private final Warp[] warps;
+
+    private final Map<String, Integer> indexes = new HashMap<>();
+
+    private final int[] edgeStart;
+
+    private final int[] edgeSource;
+
+    private final int[] edgeTarget;
+
+    private final String[] edgeCondition;
+
+    // Incoming edges, stored as indexes into the outgoing edge arrays
+    private final int[] inEdgeStart;
+
+    private final int[] inEdges;
+
+    private final Map<String, int[]> edgesByCondition = new HashMap<>();
+
+    private final int[] areas;
+
+    private final int areaCount;
+
+    private final Map<String, BitSet> tagged = new HashMap<>();
+
+    public WarpGraph(Map<String, Warp> warpsById) {
+
+        warps = warpsById.values().toArray(new Warp[0]);
+        Arrays.sort(warps, (a, b) -> a.getId().compareTo(b.getId()));
+
+        Map<String, Integer> areaIndexes = new HashMap<>();
+        areas = new int[warps.length];
+
+        for (int i = 0; i < warps.length; i++) {
+            Warp warp = warps[i];
+            warp.setIndex(i);
+            indexes.put(warp.getId(), i);
+
+            String[] idParts = warp.getId().split(",");
+            areas[i] = areaIndexes.computeIfAbsent(idParts[1] + "," + idParts[2], k -> areaIndexes.size());
+
+            for (String tag : warp.getTags()) {
+                tagged.computeIfAbsent(tag, k -> new BitSet(warps.length)).set(i);
+            }
+        }
+        areaCount = areaIndexes.size();
+
+        // Connections to warps that aren't in the json can never be added to the map, so they are dropped here
+        List<Integer> sources = new ArrayList<>();
+        List<Integer> targets = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+        edgeStart = new int[warps.length + 1];
+        int[] inDegree = new int[warps.length];
+
+        for (int i = 0; i < warps.length; i++) {
+            edgeStart[i] = targets.size();
+            if (warps[i].getConnections() == null) {
+                continue;
+            }
+            for (Map.Entry<String, String> connection : warps[i].getConnections().entrySet()) {
+                Integer target = indexes.get(connection.getKey());
+                if (target == null) {
+                    continue;
+                }
+                sources.add(i);
+                targets.add(target);
+                conditions.add(connection.getValue().equals("true") ? null : connection.getValue());
+                inDegree[target]++;
+            }
+        }
+        edgeStart[warps.length] = targets.size();
+
+        edgeSource = sources.stream().mapToInt(Integer::intValue).toArray();
+        edgeTarget = targets.stream().mapToInt(Integer::intValue).toArray();
+        edgeCondition = conditions.toArray(new String[0]);
+
+        inEdgeStart = new int[warps.length + 1];
+        for (int i = 0; i < warps.length; i++) {
+            inEdgeStart[i + 1] = inEdgeStart[i] + inDegree[i];
+        }
+        inEdges = new int[edgeTarget.length];
+        int[] inFill = Arrays.copyOf(inEdgeStart, warps.length);
+        for (int i = 0; i < warps.length; i++) {
+            for (int e = edgeStart[i]; e < edgeStart[i + 1]; e++) {
+                inEdges[inFill[edgeTarget[e]]++] = e;
+            }
+        }
+
+        Map<String, List<Integer>> conditionEdges = new HashMap<>();
+        for (int e = 0; e < edgeCondition.length; e++) {
+            if (edgeCondition[e] != null) {
+                conditionEdges.computeIfAbsent(edgeCondition[e], k -> new ArrayList<>()).add(e);
+            }
+        }
+        conditionEdges.forEach((condition, edges) ->
+                edgesByCondition.put(condition, edges.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    public int size() {
+        return warps.length;
+    }
+
+    public int edgeCount() {
+        return edgeTarget.length;
+    }
+
+    public Warp getWarp(int index) {
+        return warps[index];
+    }
+
+    /**
+     * Returns the index of the warp with this id, or -1 if there is no such warp
+     */
+    public int indexOf(String id) {
+        Integer index = indexes.get(id);
+        return index == null ? -1 : index;
+    }
+
+    public int getEdgeStart(int warp) {
+        return edgeStart[warp];
+    }
+
+    public int getEdgeEnd(int warp) {
+        return edgeStart[warp + 1];
+    }
+
+    public int getInEdgeStart(int warp) {
+        return inEdgeStart[warp];
+    }
+
+    public int getInEdgeEnd(int warp) {
+        return inEdgeStart[warp + 1];
+    }
+
+    /**
+     * Returns the (outgoing) edge index of the i-th incoming edge
+     */
+    public int getInEdge(int i) {
+        return inEdges[i];
+    }
+
+    public int getEdgeTarget(int edge) {
+        return edgeTarget[edge];
+    }
+
+    public int getEdgeSource(int edge) {
+        return edgeSource[edge];
+    }
+
+    public String getEdgeCondition(int edge) {
+        return edgeCondition[edge];
+    }
+
+    /**
+     * The indexes of every edge that needs the given condition
+     */
+    public int[] getEdgesWithCondition(String condition) {
+        return edgesByCondition.getOrDefault(condition, new int[0]);
+    }
+
+    public int getArea(int warp) {
+        return areas[warp];
+    }
+
+    public int getAreaCount() {
+        return areaCount;
+    }
+
+    public boolean hasTag(int warp, String tag) {
+        BitSet warpsWithTag = tagged.get(tag);
+        return warpsWithTag != null && warpsWithTag.get(warp);
+    }
+}
@@ -0,0 +1,218 @@
+package com.dabomstew.pkrandom.warps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * The per attempt state of the map on top of the shared WarpGraph: which warps are part of the map, which of the
+ * walkable connections are currently open and which warps have been linked to each other.
+ * <p>
+ * Every mapped warp has exactly one outgoing warp edge, so the warp edges are just stored as each warp's partner.
+ * Like a simple directed graph there is at most one edge between an ordered pair of warps.
+ */
+public class WarpGraphOverlay {
+
+    private final WarpGraph graph;
+
+    private final BitSet active;
+
+    private final BitSet mapped;
+
+    // Connection edges (indexes into the WarpGraph) that are currently part of the map
+    private final BitSet openEdges;
+
+    // Conditional edges whose condition hasn't been met yet
+    private final BitSet lockedEdges;
+
+    private final int[] partner;
+
+    // The warp edges in the order they were added, as source/target pairs
+    private final List<int[]> warpEdges = new ArrayList<>();
+
+    public WarpGraphOverlay(WarpGraph graph, BitSet active) {
+        this.graph = graph;
+        this.active = (BitSet) active.clone();
+        this.mapped = new BitSet(graph.size());
+        this.openEdges = new BitSet(graph.edgeCount());
+        this.lockedEdges = new BitSet(graph.edgeCount());
+        this.partner = new int[graph.size()];
+        Arrays.fill(partner, -1);
+
+        for (int source = active.nextSetBit(0); source >= 0; source = active.nextSetBit(source + 1)) {
+            for (int e = graph.getEdgeStart(source); e < graph.getEdgeEnd(source); e++) {
+                if (graph.getEdgeCondition(e) != null) {
+                    lockedEdges.set(e);
+                } else if (active.get(graph.getEdgeTarget(e))) {
+                    openEdges.set(e);
+                }
+            }
+        }
+    }
+
+    public WarpGraph getGraph() {
+        return graph;
+    }
+
+    public boolean isActive(int warp) {
+        return active.get(warp);
+    }
+
+    public void activate(int warp) {
+        active.set(warp);
+    }
+
+    public BitSet getActive() {
+        return (BitSet) active.clone();
+    }
+
+    public int getActiveCount() {
+        return active.cardinality();
+    }
+
+    public boolean isMapped(int warp) {
+        return mapped.get(warp);
+    }
+
+    public void setMapped(int warp) {
+        mapped.set(warp);
+    }
+
+    public BitSet getUnmapped() {
+        BitSet unmapped = (BitSet) active.clone();
+        unmapped.andNot(mapped);
+        return unmapped;
+    }
+
+    public int getPartner(int warp) {
+        return partner[warp];
+    }
+
+    public List<int[]> getWarpEdges() {
+        return warpEdges;
+    }
+
+    public boolean isEdgeOpen(int edge) {
+        return openEdges.get(edge);
+    }
+
+    public boolean isEdgeLocked(int edge) {
+        return lockedEdges.get(edge);
+    }
+
+    public boolean hasEdge(int source, int target) {
+        if (partner[source] == target) {
+            return true;
+        }
+        for (int e = graph.getEdgeStart(source); e < graph.getEdgeEnd(source); e++) {
+            if (openEdges.get(e) && graph.getEdgeTarget(e) == target) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a warp edge from source to target, returns false if there was already an edge between them
+     */
+    public boolean addWarpEdge(int source, int target) {
+        if (!active.get(source) || !active.get(target) || hasEdge(source, target)) {
+            return false;
+        }
+        partner[source] = target;
+        warpEdges.add(new int[] {source, target});
+        return true;
+    }
+
+    /**
+     * The condition for this edge has been met, so it's no longer locked. The edge is only opened if both ends are
+     * part of the map and there isn't already an edge between them. Returns true if the edge was opened.
+     */
+    public boolean unlockEdge(int edge) {
+        lockedEdges.clear(edge);
+        int source = graph.getEdgeSource(edge);
+        int target = graph.getEdgeTarget(edge);
+        if (!active.get(source) || !active.get(target) || hasEdge(source, target)) {
+            return false;
+        }
+        openEdges.set(edge);
+        return true;
+    }
+
+    /**
+     * Counts incoming plus outgoing edges, a loop counts once in each direction
+     */
+    public int degreeOf(int warp) {
+        int degree = 0;
+        for (int e = graph.getEdgeStart(warp); e < graph.getEdgeEnd(warp); e++) {
+            if (openEdges.get(e)) {
+                degree++;
+            }
+        }
+        for (int i = graph.getInEdgeStart(warp); i < graph.getInEdgeEnd(warp); i++) {
+            if (openEdges.get(graph.getInEdge(i))) {
+                degree++;
+            }
+        }
+        if (partner[warp] != -1) {
+            // A warp edge always comes with one in the opposite direction (or is a loop)
+            degree += 2;
+        }
+        return degree;
+    }
+
+    /**
+     * Groups the active warps that are connected, ignoring edge direction. Open edges are always included and locked
+     * edges are included when both ends are active, i.e. as if every condition had been met.
+     *
+     * @return the component index of each warp, or -1 for warps that aren't part of the map
+     */
+    public int[] findComponents(boolean includeLockedEdges) {
+        int[] parent = newUnionFind(graph.size());
+
+        for (int source = active.nextSetBit(0); source >= 0; source = active.nextSetBit(source + 1)) {
+            for (int e = graph.getEdgeStart(source); e < graph.getEdgeEnd(source); e++) {
+                int target = graph.getEdgeTarget(e);
+                boolean included = openEdges.get(e) || (includeLockedEdges && lockedEdges.get(e) && active.get(target));
+                if (included) {
+                    union(parent, source, target);
+                }
+            }
+            if (partner[source] != -1) {
+                union(parent, source, partner[source]);
+            }
+        }
+
+        int[] components = new int[graph.size()];
+        Arrays.fill(components, -1);
+        for (int warp = active.nextSetBit(0); warp >= 0; warp = active.nextSetBit(warp + 1)) {
+            components[warp] = find(parent, warp);
+        }
+        return components;
+    }
+
+    static int[] newUnionFind(int size) {
+        int[] parent = new int[size];
+        for (int i = 0; i < size; i++) {
+            parent[i] = i;
+        }
+        return parent;
+    }
+
+    static int find(int[] parent, int warp) {
+        while (parent[warp] != warp) {
+            parent[warp] = parent[parent[warp]];
+            warp = parent[warp];
+        }
+        return warp;
+    }
+
+    static void union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA != rootB) {
+            parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.dabomstew.pkrandom.warps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checks that goals are connected to the start even when some conditions (e.g. HMs) haven't been met yet.
+ * <p>
+ * Rather than copying the map and stripping edges for every check, the map is first joined up without any of the
+ * conditions used by the checks. Each distinct set of missing conditions then only has to add back the few
+ * conditional edges it is allowed to use. Edge direction is ignored, as these are connectivity checks.
+ */
+public class WarpLogicValidator {
+
+    private final String start;
+
+    private final List<Check> checks = new ArrayList<>();
+
+    public WarpLogicValidator(String start) {
+        this.start = start;
+    }
+
+    /**
+     * Adds goals that must be connected to the start without using edges that need any of the given conditions
+     */
+    public WarpLogicValidator require(Set<String> withoutConditions, String... goals) {
+        checks.add(new Check(withoutConditions, Arrays.asList(goals)));
+        return this;
+    }
+
+    /**
+     * @return a description of the first goal that can't be reached, or null if every goal can be reached
+     */
+    public String findFailure(WarpGraphOverlay map) {
+
+        WarpGraph graph = map.getGraph();
+        int startIndex = graph.indexOf(start);
+        if (startIndex < 0 || !map.isActive(startIndex)) {
+            return "the start " + start + " is not on the map";
+        }
+
+        Set<String> allConditions = new HashSet<>();
+        checks.forEach(check -> allConditions.addAll(check.withoutConditions));
+
+        // Everything that's connected without any of the conditions, every check builds on top of this
+        int[] base = WarpGraphOverlay.newUnionFind(graph.size());
+        BitSet active = map.getActive();
+        for (int source = active.nextSetBit(0); source >= 0; source = active.nextSetBit(source + 1)) {
+            for (int e = graph.getEdgeStart(source); e < graph.getEdgeEnd(source); e++) {
+                String condition = graph.getEdgeCondition(e);
+                if (map.isEdgeOpen(e) && (condition == null || !allConditions.contains(condition))) {
+                    WarpGraphOverlay.union(base, source, graph.getEdgeTarget(e));
+                }
+            }
+            if (map.getPartner(source) != -1) {
+                WarpGraphOverlay.union(base, source, map.getPartner(source));
+            }
+        }
+
+        Map<Set<String>, int[]> connectivity = new HashMap<>();
+        for (Check check : checks) {
+
+            int[] components = connectivity.computeIfAbsent(check.withoutConditions, without -> {
+                int[] withAllowed = base.clone();
+                for (String condition : allConditions) {
+                    if (without.contains(condition)) {
+                        continue;
+                    }
+                    for (int e : graph.getEdgesWithCondition(condition)) {
+                        if (map.isEdgeOpen(e)) {
+                            WarpGraphOverlay.union(withAllowed, graph.getEdgeSource(e), graph.getEdgeTarget(e));
+                        }
+                    }
+                }
+                return withAllowed;
+            });
+
+            for (String goal : check.goals) {
+                int goalIndex = graph.indexOf(goal);
+                if (goalIndex < 0 || !map.isActive(goalIndex)) {
+                    return goal + " is not on the map";
+                }
+                if (WarpGraphOverlay.find(components, startIndex) != WarpGraphOverlay.find(components, goalIndex)) {
+                    return check.withoutConditions.isEmpty()
+                            ? goal + " can't be reached"
+                            : goal + " can't be reached without " + String.join(", ", check.withoutConditions);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private static class Check {
+
+        private final Set<String> withoutConditions;
+
+        private final List<String> goals;
+
+        private Check(Set<String> withoutConditions, List<String> goals) {
+            this.withoutConditions = withoutConditions;
+            this.goals = goals;
+        }
+    }
+}
@@ -1,12 +1,7 @@
 package com.dabomstew.pkrandom.warps;
 
-import org.jgrapht.Graph;
-import org.jgrapht.alg.shortestpath.FloydWarshallShortestPaths;
-import org.jgrapht.traverse.BreadthFirstIterator;
-
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 public class WarpRandomizationState {
 
@@ -22,6 +17,8 @@ public class WarpRandomizationState {
 
     private WarpData data;
 
+    private WarpGraph graph;
+
     private WarpConfig config;
 
     private List<FlagCondition> flags;
@@ -32,27 +29,35 @@ public class WarpRandomizationState {
 
     private Random random;
 
-    Graph<Warp, MapEdge> mapGraph;
+    // The warp data is shared between attempts, so everything that changes while mapping lives in here
+    private WarpGraphOverlay map;
 
     private Warp root;
 
-    private Map<String, Warp> warps;
+    private WarpReachability reachability;
+
+    private BitSet remainingKeyLocations;
 
-    private Set<MapEdge> remainingConditionalEdges = new HashSet<>();
+    private String[] keyLocations;
 
-    private Map<String, String> remainingKeyLocations;
+    private BitSet remainingFlagLocations;
 
-    private Map<String, String> remainingFlagLocations;
+    private String[] flagLocations;
 
     private Set<String> remainingMustLinkHomeWarps = new HashSet<>();
 
     private Set<String> markedFlagLocations = new HashSet<>();
 
+    private Set<String> setFlags = new HashSet<>();
+
     private List<Warp> homePaths = null;
 
-    private Map<String, Integer> areaKeyLocationCount = new HashMap<>();
+    private int[] areaKeyLocationCount;
+
+    // The component of each warp, only components that still need to be connected to the root are in the set
+    private int[] components;
 
-    private List<Set<Warp>> unconnectedComponents;
+    private Set<Integer> unconnectedComponents = new HashSet<>();
 
     private Warp oddOnOutWarp;
 
@@ -63,6 +68,7 @@ public class WarpRandomizationState {
     public WarpRandomizationState(WarpConfig config,  WarpData warpData) {
 
         this.data = warpData;
+        this.graph = warpData.getGraph();
 
         this.attemptsLeft = 5;
 
@@ -81,17 +87,19 @@ public class WarpRandomizationState {
 
         this.rootCandidates = warpData.getKeyLocations().getRootCandidates();
 
-        this.warps = warpData.getWarps()
-                             .entrySet()
-                             .stream()
-                             .filter(e -> !e.getValue().getIgnore())
-                             .filter(e -> e.getValue().getGroupMain() || isNullOrEmpty(e.getValue().getGrouped()))
-                             .filter(e -> e.getValue().getLevel() <= config.getLevel())
-                             .filter(e -> !(config.isExtraDeadendRemoval() && e.getValue().getTags().contains(EXTRA_DEADEND_TAG)))
-                             .filter(e -> !e.getValue().getTags().contains(REMOVABLE_TAG))
-                             .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        BitSet active = new BitSet(graph.size());
+        for (int i = 0; i < graph.size(); i++) {
+            Warp warp = graph.getWarp(i);
+            boolean isActive = !warp.getIgnore()
+                    && (warp.getGroupMain() || isNullOrEmpty(warp.getGrouped()))
+                    && warp.getLevel() <= config.getLevel()
+                    && !(config.isExtraDeadendRemoval() && graph.hasTag(i, EXTRA_DEADEND_TAG))
+                    && !graph.hasTag(i, REMOVABLE_TAG);
+            active.set(i, isActive);
+        }
+        this.map = new WarpGraphOverlay(graph, active);
 
-        this.progress = "0/" + warps.size();
+        this.progress = "0/" + map.getActiveCount();
 
         if (config.isExtraDeadendRemoval()) {
             List<String> candidates = new ArrayList<>(warpData.getKeyLocations().getOddOnOutWithDeadendsRemovedWarps());
@@ -103,8 +111,41 @@ public class WarpRandomizationState {
             oddOnOutWarp = warpData.getWarps().get(candidates.get(random.nextInt(candidates.size())));
         }
 
-        this.remainingKeyLocations = warpData.getKeyLocations().getKeyLocations();
-        this.remainingFlagLocations = warpData.getKeyLocations().getLocationsTrigger();
+        this.remainingKeyLocations = new BitSet(graph.size());
+        this.keyLocations = new String[graph.size()];
+        warpData.getKeyLocations().getKeyLocations().forEach((id, location) -> {
+            int index = graph.indexOf(id);
+            if (index >= 0) {
+                remainingKeyLocations.set(index);
+                keyLocations[index] = location;
+            }
+        });
+
+        this.remainingFlagLocations = new BitSet(graph.size());
+        this.flagLocations = new String[graph.size()];
+        warpData.getKeyLocations().getLocationsTrigger().forEach((id, location) -> {
+            int index = graph.indexOf(id);
+            if (index >= 0) {
+                remainingFlagLocations.set(index);
+                flagLocations[index] = location;
+            }
+        });
+
+        this.areaKeyLocationCount = new int[graph.getAreaCount()];
+
+        // Every group of warps that can walk to each other (once all conditions are met) needs linking to the rest
+        this.components = map.findComponents(true);
+        int[] componentSizes = new int[graph.size()];
+        for (int component : components) {
+            if (component >= 0) {
+                componentSizes[component]++;
+            }
+        }
+        for (int component = 0; component < componentSizes.length; component++) {
+            if (componentSizes[component] > 1) {
+                unconnectedComponents.add(component);
+            }
+        }
     }
 
     public static boolean isNullOrEmpty( final Collection< ? > c ) {
@@ -131,24 +172,30 @@ public class WarpRandomizationState {
         return random;
     }
 
-    public Map<String, Warp> getWarps() {
-        return warps;
-    }
-
-    public Set<MapEdge> getRemainingConditionalEdges() {
-        return remainingConditionalEdges;
+    /**
+     * Returns the warp with this id if it's part of the map, otherwise null
+     */
+    public Warp getWarp(String id) {
+        int index = graph.indexOf(id);
+        return index >= 0 && map.isActive(index) ? graph.getWarp(index) : null;
     }
 
-    public void addRemainingConditionalEdge(MapEdge mapEdge) {
-        remainingConditionalEdges.add(mapEdge);
+    public int getWarpCount() {
+        return map.getActiveCount();
     }
 
-    public void setUnconnectedComponents(List<Set<Warp>> unconnectedComponents) {
-        this.unconnectedComponents = unconnectedComponents;
+    public boolean hasUnconnectedComponents() {
+        return !unconnectedComponents.isEmpty();
     }
 
-    public List<Set<Warp>> getUnconnectedComponents() {
-        return unconnectedComponents;
+    public List<Warp> getUnconnectedComponentWarps() {
+        List<Warp> result = new ArrayList<>();
+        for (int i = 0; i < components.length; i++) {
+            if (components[i] >= 0 && unconnectedComponents.contains(components[i])) {
+                result.add(graph.getWarp(i));
+            }
+        }
+        return result;
     }
 
     public boolean isMoreWarpsToMap() {
@@ -163,12 +210,70 @@ public class WarpRandomizationState {
         return data;
     }
 
-    public Graph<Warp, MapEdge> getMapGraph() {
-        return mapGraph;
+    public WarpGraphOverlay getMap() {
+        return map;
+    }
+
+    /**
+     * Adds a warp edge to the map, keeping the reachable set up to date.
+     * Returns false if the edge could not be added because the warps were already connected.
+     */
+    public boolean addWarpEdge(Warp source, Warp target) {
+        if (!map.addWarpEdge(source.getIndex(), target.getIndex())) {
+            return false;
+        }
+        reachability.edgeAdded(source.getIndex(), target.getIndex());
+        return true;
+    }
+
+    /**
+     * Adds a warp that wasn't part of the map (i.e. the odd one out)
+     */
+    public void addWarp(Warp warp) {
+        map.activate(warp.getIndex());
     }
 
-    public void setMapGraph(Graph<Warp, MapEdge> mapGraph) {
-        this.mapGraph = mapGraph;
+    public boolean isMapped(Warp warp) {
+        return map.isMapped(warp.getIndex());
+    }
+
+    public void setMapped(Warp warp) {
+        map.setMapped(warp.getIndex());
+    }
+
+    public boolean hasTag(Warp warp, String tag) {
+        return graph.hasTag(warp.getIndex(), tag);
+    }
+
+    public int degreeOf(Warp warp) {
+        return map.degreeOf(warp.getIndex());
+    }
+
+    /**
+     * All lists of warps are returned in id order
+     */
+    public List<Warp> getUnmappedWarps() {
+        return toWarps(map.getUnmapped());
+    }
+
+    public List<Warp> getUnmappedReachableWarps() {
+        BitSet warps = map.getUnmapped();
+        warps.and(reachability.getReachable());
+        return toWarps(warps);
+    }
+
+    public List<Warp> getUnmappedUnreachableWarps() {
+        BitSet warps = map.getUnmapped();
+        warps.andNot(reachability.getReachable());
+        return toWarps(warps);
+    }
+
+    private List<Warp> toWarps(BitSet warps) {
+        List<Warp> result = new ArrayList<>(warps.cardinality());
+        for (int i = warps.nextSetBit(0); i >= 0; i = warps.nextSetBit(i + 1)) {
+            result.add(graph.getWarp(i));
+        }
+        return result;
     }
 
     public void selectEscapePathWarps() {
@@ -181,12 +286,19 @@ public class WarpRandomizationState {
         }
     }
 
+    /**
+     * Picks the root and starts tracking what can be reached from it, so the map must be fully set up before this
+     */
     public void selectRoot() {
         List<String> candidatesList = new ArrayList<>(rootCandidates);
         int randomIndex = random.nextInt(candidatesList.size());
-        this.root = warps.get(candidatesList.get(randomIndex));
+        this.root = getWarp(candidatesList.get(randomIndex));
 
-        unconnectedComponents.removeIf(component -> component.contains(this.root));
+        int rootIndex = root == null ? -1 : root.getIndex();
+        if (root != null) {
+            unconnectedComponents.remove(components[rootIndex]);
+        }
+        this.reachability = new WarpReachability(map, rootIndex);
     }
 
     public Warp getOddOnOutWarp() {
@@ -215,11 +327,18 @@ public class WarpRandomizationState {
                 return;
         }
 
-        remainingKeyLocations.entrySet()
-                             .stream()
-                             .filter(e -> e.getValue().equals(location))
-                             .findFirst().map(Map.Entry::getKey)
-                             .ifPresent(key -> remainingKeyLocations.put(key, remainingFlagLocations.remove(key)));
+        data.getKeyLocations()
+            .getKeyLocations()
+            .entrySet()
+            .stream()
+            .filter(e -> e.getValue().equals(location))
+            .findFirst().map(Map.Entry::getKey)
+            .map(graph::indexOf)
+            .filter(index -> index >= 0)
+            .ifPresent(index -> {
+                keyLocations[index] = remainingFlagLocations.get(index) ? flagLocations[index] : null;
+                remainingFlagLocations.clear(index);
+            });
 
     }
 
@@ -231,16 +350,11 @@ public class WarpRandomizationState {
 
         List<WarpRemapping> remappings = new ArrayList<>();
 
-        List<MapEdge> warpEdges = mapGraph.edgeSet()
-                                          .stream()
-                                          .filter(e -> e.getType() == MapEdge.Type.WARP)
-                                          .collect(Collectors.toList());
-
-        for (MapEdge warpEdge : warpEdges)
+        for (int[] warpEdge : map.getWarpEdges())
         {
-            String[] targetParts = warpEdge.getTarget().split(",");
+            String[] targetParts = graph.getWarp(warpEdge[1]).getId().split(",");
 
-            Warp warp = data.getWarps().get(warpEdge.getSource());
+            Warp warp = graph.getWarp(warpEdge[0]);
 
             List<String> warpGroup = new ArrayList<>();
             warpGroup.add(warp.getId());
@@ -266,12 +380,12 @@ public class WarpRandomizationState {
         return remappings;
     }
 
-    public Map<String, String> getRemainingKeyLocations() {
-        return remainingKeyLocations;
+    public boolean isRemainingKeyLocation(Warp warp) {
+        return remainingKeyLocations.get(warp.getIndex());
     }
 
-    public Map<String, String> getRemainingFlagLocations() {
-        return remainingFlagLocations;
+    public boolean isRemainingFlagLocation(Warp warp) {
+        return remainingFlagLocations.get(warp.getIndex());
     }
 
     public Set<String> getRemainingMustLinkHomeWarps() {
@@ -296,21 +410,23 @@ public class WarpRandomizationState {
          * To access W1 from W3 you need to use W2, then return from the other side.
          * So we need to make sure W2 never links to a drop warp or locked door
          */
-        boolean sourceNeedsReturn = source.getTags().contains(NEEDS_RETURN_TAG);
-        boolean sourceIsNoReturn = source.getTags().contains(NO_RETURN_TAG);
-
-
-        Stream<Warp> candidateStream = candidates.stream()
-                                                 .filter(w -> !w.isMapped())
-                                                 .filter(w -> !w.getId().equals(source.getId()));
+        boolean sourceNeedsReturn = hasTag(source, NEEDS_RETURN_TAG);
+        boolean sourceIsNoReturn = hasTag(source, NO_RETURN_TAG);
 
-        if (sourceNeedsReturn) {
-            candidateStream = candidateStream.filter(w -> !w.getTags().contains(NO_RETURN_TAG));
-        } else if (sourceIsNoReturn) {
-            candidateStream = candidateStream.filter(w -> !w.getTags().contains(NEEDS_RETURN_TAG));
+        List<Warp> candidatesList = new ArrayList<>(candidates.size());
+        for (Warp candidate : candidates) {
+            if (isMapped(candidate) || candidate.getIndex() == source.getIndex()) {
+                continue;
+            }
+            if (sourceNeedsReturn && hasTag(candidate, NO_RETURN_TAG)) {
+                continue;
+            }
+            if (!sourceNeedsReturn && sourceIsNoReturn && hasTag(candidate, NEEDS_RETURN_TAG)) {
+                continue;
+            }
+            candidatesList.add(candidate);
         }
-
-        List<Warp> candidatesList = candidateStream.sorted(Comparator.comparing(Warp::getId)).collect(Collectors.toList());
+        candidatesList.sort(Comparator.comparingInt(Warp::getIndex));
 
         if (candidatesList.isEmpty()) {
             throw new ImpossibleMapException("Failed to find a matching warp for " + source.getId());
@@ -321,63 +437,37 @@ public class WarpRandomizationState {
 
     public void updateConnections() {
 
-        Set<String> accessibleNodesIds = new HashSet<>();
-        BreadthFirstIterator<Warp, MapEdge> iterator = new BreadthFirstIterator<>(mapGraph, root);
-        while (iterator.hasNext()) {
-            try {
-                accessibleNodesIds.add(iterator.next().getId());
-            } catch (NullPointerException e) {
-                /* Semms like the jgrapht has some bugs for graphs that aren't well connected */
-            }
-
-        }
+        // Only the warps reached since the last update can have changed the remaining locations
+        BitSet accessibleNodes = reachability.takeNewlyReachable();
 
-        for (String nodeId : accessibleNodesIds) {
+        for (int node = accessibleNodes.nextSetBit(0); node >= 0; node = accessibleNodes.nextSetBit(node + 1)) {
 
-            if (remainingKeyLocations.containsKey(nodeId)) {
-                markedFlagLocations.add(remainingKeyLocations.get(nodeId));
+            if (remainingKeyLocations.get(node)) {
+                markedFlagLocations.add(keyLocations[node]);
             }
-            if (remainingFlagLocations.containsKey(nodeId)) {
-                markedFlagLocations.add(remainingFlagLocations.get(nodeId));
+            if (remainingFlagLocations.get(node)) {
+                markedFlagLocations.add(flagLocations[node]);
             }
 
-            remainingKeyLocations.remove(nodeId);
-            remainingFlagLocations.remove(nodeId);
+            remainingKeyLocations.clear(node);
+            remainingFlagLocations.clear(node);
         }
 
-        for (FlagCondition flag : flags.stream().filter(f -> !f.isSet()).collect(Collectors.toList()))
+        for (FlagCondition flag : flags)
         {
-            if (markedFlagLocations.containsAll(flag.getCondition())) {
-                flag.setFlag();
-            }
-        }
+            if (!setFlags.contains(flag.getFlag()) && markedFlagLocations.containsAll(flag.getCondition())) {
+                setFlags.add(flag.getFlag());
 
-        Set<String> setFlags = flags.stream()
-                                    .filter(FlagCondition::isSet)
-                                    .map(FlagCondition::getFlag)
-                                    .collect(Collectors.toSet());
-
-        Set<MapEdge> newEdgesToAdd = new HashSet<>();
-        for (MapEdge edge: remainingConditionalEdges)
-        {
-           if (setFlags.contains(edge.getCondition()))
-           {
-               newEdgesToAdd.add(edge);
-               Warp v1 = data.getWarps().get(edge.getSource());
-               Warp v2 = data.getWarps().get(edge.getTarget());
-
-               if (mapGraph.vertexSet().contains(v1) && mapGraph.vertexSet().contains(v2))
-               {
-                   mapGraph.addEdge(v1, v2, edge);
-               }
-
-           }
+                for (int edge : graph.getEdgesWithCondition(flag.getFlag())) {
+                    if (map.isEdgeLocked(edge) && map.unlockEdge(edge)) {
+                        reachability.edgeAdded(graph.getEdgeSource(edge), graph.getEdgeTarget(edge));
+                    }
+                }
+            }
         }
-        remainingConditionalEdges.removeAll(newEdgesToAdd);
-
 
-        long unmappedRemainingCount = mapGraph.vertexSet().stream().filter(w -> !w.isMapped()).count();
-        long totalWarps = mapGraph.vertexSet().size();
+        int unmappedRemainingCount = map.getUnmapped().cardinality();
+        int totalWarps = map.getActiveCount();
 
         if (unmappedRemainingCount == 0) {
             setMoreWarpsToMap(false);
@@ -395,17 +485,15 @@ public class WarpRandomizationState {
     }
 
     public void removeComponentWithWarp(Warp targetWarp) {
-
-        unconnectedComponents = unconnectedComponents.stream()
-                                                     .filter(u -> !u.contains(targetWarp))
-                                                     .collect(Collectors.toList());
-
+        int component = components[targetWarp.getIndex()];
+        if (component >= 0) {
+            unconnectedComponents.remove(component);
+        }
     }
 
     public void generateHomePaths(List<Warp> reachableNodes) {
-        FloydWarshallShortestPaths<Warp, MapEdge> fw = new FloydWarshallShortestPaths<>(mapGraph);
         List<Warp> homeEscapesList = reachableNodes.stream()
-                                                   .filter(node -> fw.getPathWeight(root, node) != Double.POSITIVE_INFINITY)
+                                                   .filter(node -> reachability.isReachable(node.getIndex()))
                                                    .collect(Collectors.toList());
         homeEscapesList.forEach(node -> remainingMustLinkHomeWarps.remove(node.getId()));
 
@@ -420,56 +508,24 @@ public class WarpRandomizationState {
 
         List<Warp> preferredNodes = reachableNodes;
 
-        List<String> lowPopulatedAreas = areaKeyLocationCount.entrySet()
-                                                             .stream()
-                                                             .filter(e -> e.getValue() >= 1)
-                                                             .map(Map.Entry::getKey)
-                                                             .collect(Collectors.toList());
-        List<Warp> firstPreference = reachableNodes.stream()
-                                                   .filter(w -> !lowPopulatedAreas.contains(getAreaKey(w)))
-                                                   .collect(Collectors.toList());
-
-        if (!firstPreference.isEmpty()) {
-            preferredNodes = firstPreference;
-        } else {
-            List<String> midPopulatedAreas = areaKeyLocationCount.entrySet()
-                    .stream()
-                    .filter(e -> e.getValue() >= 2)
-                    .map(Map.Entry::getKey)
-                    .collect(Collectors.toList());
-            List<Warp> secondPreference = reachableNodes.stream()
-                    .filter(w -> !midPopulatedAreas.contains(getAreaKey(w)))
-                    .collect(Collectors.toList());
-
-            if (!secondPreference.isEmpty()) {
-                preferredNodes = secondPreference;
-            } else {
-                List<String> wellPopulatedAreas = areaKeyLocationCount.entrySet()
-                        .stream()
-                        .filter(e -> e.getValue() >= 3)
-                        .map(Map.Entry::getKey)
-                        .collect(Collectors.toList());
-                List<Warp> thirdPreference = reachableNodes.stream()
-                        .filter(w -> !wellPopulatedAreas.contains(getAreaKey(w)))
-                        .collect(Collectors.toList());
-
-                if (!thirdPreference.isEmpty()) {
-                    preferredNodes = thirdPreference;
+        // Prefer areas with no goals yet, then areas with one, then areas with two
+        for (int populated = 1; populated <= 3; populated++) {
+            List<Warp> preference = new ArrayList<>();
+            for (Warp warp : reachableNodes) {
+                if (areaKeyLocationCount[graph.getArea(warp.getIndex())] < populated) {
+                    preference.add(warp);
                 }
             }
+            if (!preference.isEmpty()) {
+                preferredNodes = preference;
+                break;
+            }
         }
 
-        preferredNodes.sort(Comparator.comparing(Warp::getId));
+        preferredNodes.sort(Comparator.comparingInt(Warp::getIndex));
         Warp result = preferredNodes.get(random.nextInt(preferredNodes.size()));
-        String areaKey = getAreaKey(result);
-        Integer newCount = areaKeyLocationCount.getOrDefault(areaKey, 0) + 1;
-        areaKeyLocationCount.put(areaKey, newCount);
+        areaKeyLocationCount[graph.getArea(result.getIndex())]++;
 
         return result;
     }
-
-    private String getAreaKey(Warp warp) {
-        String[] warpIdParts = warp.getId().split(",");
-        return warpIdParts[1] + "," + warpIdParts[2];
-    }
 }
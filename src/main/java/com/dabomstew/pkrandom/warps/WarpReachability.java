@@ -0,0 +1,84 @@
+package com.dabomstew.pkrandom.warps;
+
+import java.util.BitSet;
+
+/**
+ * Keeps track of which warps can be reached from the root while the map graph is being built.
+ * Edges are only ever added during mapping, so the reachable set only grows. When a new edge leads
+ * out of the reachable set we explore from its target, which means every warp is visited at most once
+ * per attempt instead of re-running a full traversal from the root after every mapping.
+ */
+public class WarpReachability {
+
+    private final WarpGraphOverlay map;
+
+    private final BitSet reachable;
+
+    private BitSet newlyReachable;
+
+    private final int[] queue;
+
+    public WarpReachability(WarpGraphOverlay map, int root) {
+        this.map = map;
+        this.reachable = new BitSet(map.getGraph().size());
+        this.newlyReachable = new BitSet(map.getGraph().size());
+        this.queue = new int[map.getGraph().size()];
+        if (root >= 0 && map.isActive(root)) {
+            explore(root);
+        }
+    }
+
+    public boolean isReachable(int warp) {
+        return reachable.get(warp);
+    }
+
+    /**
+     * Must be called after an edge has been added to the map
+     */
+    public void edgeAdded(int source, int target) {
+        if (reachable.get(source) && !reachable.get(target)) {
+            explore(target);
+        }
+    }
+
+    public BitSet getReachable() {
+        return (BitSet) reachable.clone();
+    }
+
+    /**
+     * Returns the warps that became reachable since the last call
+     */
+    public BitSet takeNewlyReachable() {
+        BitSet result = newlyReachable;
+        newlyReachable = new BitSet(map.getGraph().size());
+        return result;
+    }
+
+    private void explore(int start) {
+        WarpGraph graph = map.getGraph();
+        int head = 0;
+        int tail = 0;
+        visit(start);
+        queue[tail++] = start;
+        while (head < tail) {
+            int current = queue[head++];
+            for (int e = graph.getEdgeStart(current); e < graph.getEdgeEnd(current); e++) {
+                int next = graph.getEdgeTarget(e);
+                if (map.isEdgeOpen(e) && !reachable.get(next)) {
+                    visit(next);
+                    queue[tail++] = next;
+                }
+            }
+            int next = map.getPartner(current);
+            if (next != -1 && !reachable.get(next)) {
+                visit(next);
+                queue[tail++] = next;
+            }
+        }
+    }
+
+    private void visit(int warp) {
+        reachable.set(warp);
+        newlyReachable.set(warp);
+    }
+}